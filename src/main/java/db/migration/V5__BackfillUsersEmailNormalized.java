@@ -0,0 +1,84 @@
+package db.migration;
+
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Fills users.email_normalized with the same normalization the application applies, one committed batch at a
+// time so the table is never locked for the whole backfill.
+public class V5__BackfillUsersEmailNormalized extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private static final String SELECT_BATCH =
+            "SELECT id, email FROM users WHERE email_normalized IS NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+
+    private static final String UPDATE = "UPDATE users SET email_normalized = ? WHERE id = ?";
+
+    private static final String DUPLICATES =
+            "SELECT email_normalized, COUNT(*) FROM users WHERE deleted_at IS NULL "
+                    + "GROUP BY email_normalized HAVING COUNT(*) > 1 ORDER BY email_normalized LIMIT 20";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BATCH);
+             PreparedStatement update = connection.prepareStatement(UPDATE)) {
+            long lastId = 0;
+            int rows;
+            do {
+                select.setLong(1, lastId);
+                rows = 0;
+                try (ResultSet batch = select.executeQuery()) {
+                    while (batch.next()) {
+                        lastId = batch.getLong(1);
+                        update.setString(1, normalizeEmail(batch.getString(2)));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                update.executeBatch();
+                connection.commit();
+            } while (rows == BATCH_SIZE);
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        // the unique index in V6 would fail half-built on these, so stop here with something actionable
+        List<String> duplicates = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(DUPLICATES);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                duplicates.add(rows.getString(1) + " (" + rows.getLong(2) + " users)");
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw new FlywayException("Live users share an email that differs only in case or whitespace; "
+                    + "merge or rename them before migrating: " + String.join(", ", duplicates));
+        }
+    }
+
+    // a copy of User#normalizeEmail as of this version, so later changes to the entity cannot alter the migration
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.example.userservice.dto.StaleUserResponse;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+public class StaleUserStore {
+
+    // headers of the entry, response, strings, boxed id and map nodes
+    private static final int ENTRY_OVERHEAD_BYTES = 288;
+    private static final int MAX_PENDING_REVALIDATIONS = 1024;
+
+    private record Entry(UserResponse response, String email, long storedAt, int bytes) {
+    }
+
+    private final boolean enabled;
+    // put runs on every successful read, so nothing here takes a shared lock
+    private final Cache<Long, Entry> byId;
+    private final ConcurrentHashMap<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final Set<Long> pendingRevalidation = ConcurrentHashMap.newKeySet();
+    // order the ids were served stale in; ids no longer pending are skipped when draining
+    private final Queue<Long> pendingOrder = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public StaleUserStore(@Value("${app.stale.enabled:true}") boolean enabled,
+                          @Value("${app.stale.max-bytes:16777216}") long maxBytes) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Entry entry) -> entry.bytes())
+                // maintenance is cheap here; running it on the caller keeps the byte budget exact
+                .executor(Runnable::run)
+                .evictionListener((Long id, Entry entry, RemovalCause cause) -> {
+                    if (id != null && entry != null) {
+                        unlink(id, entry);
+                    }
+                })
+                .build();
+    }
+
+    public void put(UserResponse response) {
+        if (!enabled || response == null || response.getId() == null || response instanceof StaleUserResponse) {
+            return;
+        }
+        UserResponse copy = new UserResponse(response.getId(), response.getName(), response.getEmail(),
+                response.getAge(), response.getCreatedAt());
+        String email = User.normalizeEmail(copy.getEmail());
+        Entry entry = new Entry(copy, email, System.currentTimeMillis(), sizeOf(copy));
+        Entry previous = byId.asMap().put(copy.getId(), entry);
+        if (previous != null && previous.email() != null && !previous.email().equals(email)) {
+            unlink(copy.getId(), previous);
+        }
+        if (email != null) {
+            idsByEmail.put(email, copy.getId());
+        }
+        if (!pendingRevalidation.isEmpty()) {
+            pendingRevalidation.remove(copy.getId());
+        }
+    }
+
+    // write path: a rolled back write must not leave a user behind that the database never had
+    public void putAfterCommit(UserResponse response) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(response);
+                }
+            });
+        } else {
+            put(response);
+        }
+    }
+
+    public void remove(Long id) {
+        Entry removed = byId.asMap().remove(id);
+        if (removed != null) {
+            unlink(id, removed);
+        }
+        pendingRevalidation.remove(id);
+    }
+
+    public Optional<StaleUserResponse> findById(Long id) {
+        Entry entry = byId.getIfPresent(id);
+        if (entry != null && pendingRevalidation.size() < MAX_PENDING_REVALIDATIONS
+                && pendingRevalidation.add(id)) {
+            pendingOrder.add(id);
+        }
+        return Optional.ofNullable(entry).map(StaleUserStore::toStale);
+    }
+
+    public Optional<StaleUserResponse> findByEmail(String email) {
+        String normalized = User.normalizeEmail(email);
+        Long id = normalized == null ? null : idsByEmail.get(normalized);
+        if (id == null) {
+            return Optional.empty();
+        }
+        // the index is updated after the entry, so check it still points at a user with this email
+        Entry entry = byId.getIfPresent(id);
+        if (entry == null || !normalized.equals(entry.email())) {
+            return Optional.empty();
+        }
+        return findById(id);
+    }
+
+    // ids served stale since the last call, so they can be refreshed once the database is back
+    public List<Long> drainPendingRevalidation(int max) {
+        List<Long> ids = new ArrayList<>(Math.min(max, pendingRevalidation.size()));
+        Long id;
+        while (ids.size() < max && (id = pendingOrder.poll()) != null) {
+            if (pendingRevalidation.remove(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public int size() {
+        return byId.asMap().size();
+    }
+
+    public long getBytes() {
+        return byId.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private void unlink(Long id, Entry entry) {
+        if (entry.email() != null) {
+            idsByEmail.remove(entry.email(), id);
+        }
+    }
+
+    private static StaleUserResponse toStale(Entry entry) {
+        long ageSeconds = Math.max(0, System.currentTimeMillis() - entry.storedAt()) / 1000;
+        return new StaleUserResponse(entry.response(), ageSeconds);
+    }
+
+    private static int sizeOf(UserResponse response) {
+        // compact strings take about a byte per character
+        return ENTRY_OVERHEAD_BYTES + length(response.getName()) + length(response.getEmail());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.userservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.userservice.event.UserEvent;
+import org.example.userservice.event.UserEventOrigin;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Applies writes made on other instances to this instance's caches. Each poll is handled as one batch: the affected
+// users are evicted from every local cache, and users the snapshot store keeps are reloaded in a single query.
+@Component
+@ConditionalOnProperty(name = "app.cache-invalidation.enabled", havingValue = "true")
+public class UserCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidator.class);
+
+    private final UserSnapshotStore userSnapshotStore;
+    private final UserResponseCache userResponseCache;
+    private final StaleUserStore staleUserStore;
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserEventOrigin userEventOrigin;
+
+    private final Timer lag;
+    private final Counter invalidated;
+    private final Counter skipped;
+    private volatile long lastLagMillis;
+
+    @Autowired
+    public UserCacheInvalidator(UserSnapshotStore userSnapshotStore,
+                                UserResponseCache userResponseCache,
+                                StaleUserStore staleUserStore,
+                                UserRepository userRepository,
+                                EntityManagerFactory entityManagerFactory,
+                                UserEventOrigin userEventOrigin,
+                                MeterRegistry meterRegistry) {
+        this.userSnapshotStore = userSnapshotStore;
+        this.userResponseCache = userResponseCache;
+        this.staleUserStore = staleUserStore;
+        this.userRepository = userRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.userEventOrigin = userEventOrigin;
+        this.lag = Timer.builder("user.cache.invalidation.lag")
+                .description("Time from a write on another instance to its invalidation here")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.invalidated = Counter.builder("user.cache.invalidation.events")
+                .description("Events from other instances applied to the local caches")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("user.cache.invalidation.skipped")
+                .description("Events produced by this instance, which already updated its caches")
+                .register(meterRegistry);
+        Gauge.builder("user.cache.invalidation.last-lag", this, UserCacheInvalidator::getLastLagMillis)
+                .description("Lag of the most recently applied event")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // the id must not double as the group id, which would put every instance in one group and split the events
+    @KafkaListener(id = "user-cache-invalidator",
+            idIsGroup = false,
+            topics = "${app.kafka.topic.user-events}",
+            containerFactory = "userEventBatchListenerFactory")
+    public void onEvents(List<ConsumerRecord<String, UserEvent>> records) {
+        Set<Long> changed = new LinkedHashSet<>();
+        Set<Long> deleted = new LinkedHashSet<>();
+        Set<Long> created = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, UserEvent> record : records) {
+            if (userEventOrigin.isOwn(record.headers())) {
+                skipped.increment();
+                continue;
+            }
+            UserEvent event = record.value();
+            if (event == null || event.getUserId() == null) {
+                continue;
+            }
+            String email = User.normalizeEmail(event.getEmail());
+            if ("DELETED".equals(event.getEventType())) {
+                deleted.add(event.getUserId());
+                changed.remove(event.getUserId());
+            } else {
+                changed.add(event.getUserId());
+                if ("CREATED".equals(event.getEventType())) {
+                    created.add(event.getUserId());
+                }
+            }
+            if (email != null) {
+                emails.add(email);
+            }
+            lastLagMillis = Math.max(0, now - record.timestamp());
+            lag.record(lastLagMillis, TimeUnit.MILLISECONDS);
+            invalidated.increment();
+        }
+        if (changed.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+
+        evictSecondLevelCache(changed, deleted, emails);
+        for (Long id : changed) {
+            userResponseCache.invalidate(id);
+            staleUserStore.remove(id);
+        }
+        for (Long id : deleted) {
+            userResponseCache.invalidate(id);
+            staleUserStore.remove(id);
+            userSnapshotStore.remove(id);
+        }
+
+        if (userSnapshotStore.isReady() && !changed.isEmpty()) {
+            Set<Long> missing = new HashSet<>(changed);
+            long mark = userSnapshotStore.readMark();
+            for (User user : userRepository.findAllById(changed)) {
+                userSnapshotStore.refresh(user, mark);
+                missing.remove(user.getId());
+            }
+            // a new user this read cannot see yet is not gone; only a DELETED event removes it
+            missing.removeAll(created);
+            missing.forEach(userSnapshotStore::remove);
+        }
+        logger.debug("Invalidated {} changed and {} deleted users from other instances", changed.size(), deleted.size());
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    private void evictSecondLevelCache(Set<Long> changed, Set<Long> deleted, Set<String> emails) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        changed.forEach(id -> cache.evictEntityData(User.class, id));
+        deleted.forEach(id -> cache.evictEntityData(User.class, id));
+        // existsByEmail results of this instance only see its own writes through the update timestamps
+        cache.evictDefaultQueryRegion();
+
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class);
+        NaturalIdDataAccess naturalIds = persister.getNaturalIdCacheAccessStrategy();
+        if (naturalIds == null || emails.isEmpty()) {
+            return;
+        }
+        // natural-id keys are built per session, but never touch its connection
+        try (SharedSessionContractImplementor session = (SharedSessionContractImplementor) sessionFactory.openSession()) {
+            for (String email : emails) {
+                naturalIds.evict(naturalIds.generateCacheKey(email, persister, session));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class UserResponseCache {
+
+    // array headers, entry, key and map node
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+    private static final int VERSION_STRIPES = 4096;
+
+    public record Key(long userId, String variant) {
+    }
+
+    public record Entry(long version, String contentType, String etag, byte[] body) {
+    }
+
+    private final boolean enabled;
+    private final Cache<Key, Entry> cache;
+    // bumped on every write to a user; an entry only counts while its stripe is still at the version it was filled at
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    @Autowired
+    public UserResponseCache(MeterRegistry meterRegistry,
+                             @Value("${app.response-cache.enabled:true}") boolean enabled,
+                             @Value("${app.response-cache.max-bytes:67108864}") long maxBytes) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> ENTRY_OVERHEAD_BYTES + key.variant().length()
+                        + entry.contentType().length() + entry.etag().length() + entry.body().length)
+                .recordStats()
+                .build();
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-responses");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long version(long userId) {
+        return versions.get(stripe(userId));
+    }
+
+    public Optional<Entry> get(Key key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null || entry.version() != version(key.userId())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    // version is the one read before the response was rendered, so a write in between discards the fill
+    public void put(Key key, long version, String contentType, String etag, byte[] body) {
+        if (version == version(key.userId())) {
+            cache.put(key, new Entry(version, contentType, etag, body));
+        }
+    }
+
+    public void invalidate(long userId) {
+        if (!enabled) {
+            return;
+        }
+        versions.incrementAndGet(stripe(userId));
+        // reads that started inside the transaction may still render the old row, so bump again once it ends
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.incrementAndGet(stripe(userId));
+                }
+            });
+        }
+    }
+
+    public long getBytes() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private static int stripe(long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (VERSION_STRIPES - 1);
+    }
+}
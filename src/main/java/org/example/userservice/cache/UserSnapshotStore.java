@@ -0,0 +1,498 @@
+package org.example.userservice.cache;
+
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+@Component
+public class UserSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSnapshotStore.class);
+
+    private static final int NO_AGE = Integer.MIN_VALUE;
+    private static final int EMPTY_SLOT = -1;
+    private static final int WRITE_STRIPES = 4096;
+    private static final long WRITTEN = -1;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int loadPageSize;
+    private final StampedLock lock = new StampedLock();
+    // rows read from the database are only stored if no write touched their stripe since the read began, so a
+    // read that raced an update or delete can neither overwrite the newer row nor bring back a deleted one
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLongArray lastWrites = new AtomicLongArray(WRITE_STRIPES);
+
+    private volatile boolean ready;
+
+    private int size;
+    private long[] ids;
+    private int[] ages;
+    private long[] createdAt;
+    private int[] nameOffsets;
+    private short[] nameLengths;
+    private int[] emailOffsets;
+    private short[] emailLengths;
+    // User#normalizeEmail form the email slots are keyed by; shares the email's bytes when they are the same
+    private int[] keyOffsets;
+    private short[] keyLengths;
+
+    private byte[] heap;
+    private int heapSize;
+    private int heapGarbage;
+
+    private int[] idSlots;
+    private int[] emailSlots;
+
+    @Autowired
+    public UserSnapshotStore(UserRepository userRepository,
+                             @Value("${app.snapshot.enabled:false}") boolean enabled,
+                             @Value("${app.snapshot.load-page-size:1000}") int loadPageSize,
+                             @Value("${app.snapshot.initial-capacity:1024}") int initialCapacity) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.loadPageSize = loadPageSize;
+        allocate(Math.max(16, initialCapacity));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            long mark = readMark();
+            List<User> users = userRepository.findByIdGreaterThanOrderById(lastId, Limit.of(loadPageSize));
+            users.forEach(user -> fill(user, mark));
+            if (users.size() < loadPageSize) {
+                break;
+            }
+            lastId = users.get(users.size() - 1).getId();
+        }
+        ready = true;
+        logger.info("Loaded {} users into snapshot store in {} ms ({} bytes/user)",
+                size(), (System.nanoTime() - started) / 1_000_000, bytesPerUser());
+    }
+
+    // take before reading users from the database, and hand to fill or refresh with the rows read
+    public long readMark() {
+        return writes.get();
+    }
+
+    // write path: the row as this transaction wrote it, stored once it commits
+    public void put(User user) {
+        if (!enabled) {
+            return;
+        }
+        Long id = user.getId();
+        String name = user.getName();
+        String email = user.getEmail();
+        Integer age = user.getAge();
+        LocalDateTime created = user.getCreatedAt();
+        // reads that start before the commit and see the old row must not store it afterwards
+        written(id);
+        afterCommit(() -> upsert(id, name, email, age, created, true, WRITTEN));
+    }
+
+    // read path: stores a user read after mark unless it is already stored or was written since
+    public void fill(User user, long mark) {
+        if (enabled) {
+            upsert(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(), false, mark);
+        }
+    }
+
+    // replaces the stored user with one read after mark, unless a write got to it since
+    public void refresh(User user, long mark) {
+        if (enabled) {
+            upsert(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(), true, mark);
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        written(id);
+        afterCommit(() -> delete(id));
+    }
+
+    public Optional<UserResponse> findById(Long id) {
+        return Optional.ofNullable(read(() -> {
+            int row = rowOfId(id);
+            return row < 0 ? null : toResponse(row);
+        }));
+    }
+
+    public Optional<UserResponse> findByEmail(String email) {
+        byte[] key = User.normalizeEmail(email).getBytes(StandardCharsets.UTF_8);
+        return Optional.ofNullable(read(() -> {
+            int row = rowOfEmail(key);
+            return row < 0 ? null : toResponse(row);
+        }));
+    }
+
+    public List<UserResponse> findAll() {
+        return read(() -> {
+            List<UserResponse> users = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                users.add(toResponse(row));
+            }
+            return users;
+        });
+    }
+
+    public int size() {
+        return read(() -> size);
+    }
+
+    public long footprintBytes() {
+        return read(() -> (long) ids.length * Long.BYTES
+                + (long) ages.length * Integer.BYTES
+                + (long) createdAt.length * Long.BYTES
+                + (long) nameOffsets.length * Integer.BYTES
+                + (long) nameLengths.length * Short.BYTES
+                + (long) emailOffsets.length * Integer.BYTES
+                + (long) emailLengths.length * Short.BYTES
+                + (long) keyOffsets.length * Integer.BYTES
+                + (long) keyLengths.length * Short.BYTES
+                + heap.length
+                + (long) idSlots.length * Integer.BYTES
+                + (long) emailSlots.length * Integer.BYTES);
+    }
+
+    public long bytesPerUser() {
+        int users = size();
+        return users == 0 ? 0 : footprintBytes() / users;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException tornRead) {
+                // a concurrent write resized or moved the columns; retry under the read lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void written(long id) {
+        lastWrites.set(stripe(id), writes.incrementAndGet());
+    }
+
+    // mark is WRITTEN for committed writes, otherwise the readMark() taken before the row was read
+    private void upsert(Long id, String name, String email, Integer age, LocalDateTime created, boolean overwrite,
+                        long mark) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] keyBytes = User.normalizeEmail(email).getBytes(StandardCharsets.UTF_8);
+        boolean sharedKey = Arrays.equals(emailBytes, keyBytes);
+        long stamp = lock.writeLock();
+        try {
+            if (mark == WRITTEN) {
+                written(id);
+            } else if (lastWrites.get(stripe(id)) > mark) {
+                return;
+            }
+            int row = rowOfId(id);
+            if (row >= 0 && !overwrite) {
+                return;
+            }
+            if (row < 0) {
+                if (size == ids.length) {
+                    allocate(ids.length * 2);
+                }
+                row = size++;
+                ids[row] = id;
+                insertSlot(idSlots, hash(id), row);
+            } else {
+                removeSlot(emailSlots, hash(keyBytesAt(row)), row);
+                heapGarbage += storedBytes(row);
+            }
+            ages[row] = age == null ? NO_AGE : age;
+            createdAt[row] = created == null ? Long.MIN_VALUE : created.toEpochSecond(ZoneOffset.UTC);
+            nameOffsets[row] = append(nameBytes);
+            nameLengths[row] = (short) nameBytes.length;
+            emailOffsets[row] = append(emailBytes);
+            emailLengths[row] = (short) emailBytes.length;
+            keyOffsets[row] = sharedKey ? emailOffsets[row] : append(keyBytes);
+            keyLengths[row] = (short) keyBytes.length;
+            insertSlot(emailSlots, hash(keyBytes), row);
+            if (heapGarbage > heapSize / 2) {
+                compactHeap();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void delete(Long id) {
+        long stamp = lock.writeLock();
+        try {
+            // under the lock, so a fill that read the row before the delete committed cannot slip in after it
+            written(id);
+            int row = rowOfId(id);
+            if (row < 0) {
+                return;
+            }
+            removeSlot(idSlots, hash(id), row);
+            removeSlot(emailSlots, hash(keyBytesAt(row)), row);
+            heapGarbage += storedBytes(row);
+
+            int last = --size;
+            if (row != last) {
+                replaceSlot(idSlots, hash(ids[last]), last, row);
+                replaceSlot(emailSlots, hash(keyBytesAt(last)), last, row);
+                ids[row] = ids[last];
+                ages[row] = ages[last];
+                createdAt[row] = createdAt[last];
+                nameOffsets[row] = nameOffsets[last];
+                nameLengths[row] = nameLengths[last];
+                emailOffsets[row] = emailOffsets[last];
+                emailLengths[row] = emailLengths[last];
+                keyOffsets[row] = keyOffsets[last];
+                keyLengths[row] = keyLengths[last];
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private UserResponse toResponse(int row) {
+        int age = ages[row];
+        long created = createdAt[row];
+        return new UserResponse(
+                ids[row],
+                new String(heap, nameOffsets[row], nameLengths[row], StandardCharsets.UTF_8),
+                new String(heap, emailOffsets[row], emailLengths[row], StandardCharsets.UTF_8),
+                age == NO_AGE ? null : age,
+                created == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(created, 0, ZoneOffset.UTC));
+    }
+
+    private int rowOfId(long id) {
+        int[] slots = idSlots;
+        int mask = slots.length - 1;
+        int slot = hash(id) & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int row = slots[slot];
+            if (row == EMPTY_SLOT) {
+                return -1;
+            }
+            if (ids[row] == id) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int rowOfEmail(byte[] email) {
+        int[] slots = emailSlots;
+        int mask = slots.length - 1;
+        int slot = hash(email) & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int row = slots[slot];
+            if (row == EMPTY_SLOT) {
+                return -1;
+            }
+            int offset = keyOffsets[row];
+            if (Arrays.equals(heap, offset, offset + keyLengths[row], email, 0, email.length)) {
+                return row;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private byte[] keyBytesAt(int row) {
+        int offset = keyOffsets[row];
+        return Arrays.copyOfRange(heap, offset, offset + keyLengths[row]);
+    }
+
+    private boolean sharesKey(int row) {
+        return keyOffsets[row] == emailOffsets[row];
+    }
+
+    private int storedBytes(int row) {
+        return nameLengths[row] + emailLengths[row] + (sharesKey(row) ? 0 : keyLengths[row]);
+    }
+
+    private int append(byte[] bytes) {
+        if (heapSize + bytes.length > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length * 2, heapSize + bytes.length));
+        }
+        int offset = heapSize;
+        System.arraycopy(bytes, 0, heap, offset, bytes.length);
+        heapSize += bytes.length;
+        return offset;
+    }
+
+    private void compactHeap() {
+        byte[] compacted = new byte[Math.max(64, (heapSize - heapGarbage) * 2)];
+        int position = 0;
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(heap, nameOffsets[row], compacted, position, nameLengths[row]);
+            nameOffsets[row] = position;
+            position += nameLengths[row];
+            boolean sharedKey = sharesKey(row);
+            System.arraycopy(heap, emailOffsets[row], compacted, position, emailLengths[row]);
+            emailOffsets[row] = position;
+            position += emailLengths[row];
+            if (sharedKey) {
+                keyOffsets[row] = emailOffsets[row];
+            } else {
+                System.arraycopy(heap, keyOffsets[row], compacted, position, keyLengths[row]);
+                keyOffsets[row] = position;
+                position += keyLengths[row];
+            }
+        }
+        heap = compacted;
+        heapSize = position;
+        heapGarbage = 0;
+    }
+
+    private void allocate(int capacity) {
+        if (ids == null) {
+            ids = new long[capacity];
+            ages = new int[capacity];
+            createdAt = new long[capacity];
+            nameOffsets = new int[capacity];
+            nameLengths = new short[capacity];
+            emailOffsets = new int[capacity];
+            emailLengths = new short[capacity];
+            keyOffsets = new int[capacity];
+            keyLengths = new short[capacity];
+            heap = new byte[capacity * 32];
+        } else {
+            ids = Arrays.copyOf(ids, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            emailOffsets = Arrays.copyOf(emailOffsets, capacity);
+            emailLengths = Arrays.copyOf(emailLengths, capacity);
+            keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+            keyLengths = Arrays.copyOf(keyLengths, capacity);
+        }
+        // keep both hash tables at most half full
+        idSlots = newSlots(capacity * 2);
+        emailSlots = newSlots(capacity * 2);
+        for (int row = 0; row < size; row++) {
+            insertSlot(idSlots, hash(ids[row]), row);
+            insertSlot(emailSlots, hash(keyBytesAt(row)), row);
+        }
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[Integer.highestOneBit(capacity - 1) << 1];
+        Arrays.fill(slots, EMPTY_SLOT);
+        return slots;
+    }
+
+    private static void insertSlot(int[] slots, int hash, int row) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != EMPTY_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row;
+    }
+
+    private static void replaceSlot(int[] slots, int hash, int oldRow, int newRow) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != oldRow) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = newRow;
+    }
+
+    private void removeSlot(int[] slots, int hash, int row) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != row) {
+            slot = (slot + 1) & mask;
+        }
+        // backward-shift deletion keeps probe chains intact without tombstones
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (slots[next] != EMPTY_SLOT) {
+            int candidate = slots[next];
+            int home = (slots == idSlots ? hash(ids[candidate]) : hash(keyBytesAt(candidate))) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = candidate;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = EMPTY_SLOT;
+    }
+
+    private static int stripe(long id) {
+        return (int) (id ^ (id >>> 32)) & (WRITE_STRIPES - 1);
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.userservice.config;
+
+import org.example.userservice.id.NodeIdLease;
+import org.example.userservice.id.UserIdGenerator;
+import org.example.userservice.id.UserIdentifierGenerator;
+import org.example.userservice.sharding.UserShards;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    // without an explicit node id every instance leases one, so two instances can never issue the same ids
+    @Bean
+    @ConditionalOnExpression("${app.id.node-id:-1} < 0")
+    public NodeIdLease nodeIdLease(
+            DataSource dataSource,
+            UserShards userShards,
+            ObjectProvider<FlywayMigrationInitializer> flywayMigration,
+            ObjectProvider<EurekaInstanceConfigBean> eurekaInstance,
+            @Value("${app.id.node-lease-ttl:PT60S}") Duration ttl,
+            @Value("${app.id.max-clock-backward-ms:5000}") long maxBackwardMillis) {
+        // user_id_nodes comes with the migrations, which must have run first
+        flywayMigration.getIfAvailable();
+        EurekaInstanceConfigBean instance = eurekaInstance.getIfAvailable();
+        String owner = (instance != null ? instance.getInstanceId() + "/" : "") + UUID.randomUUID();
+        return new NodeIdLease(new JdbcTemplate(dataSource), owner, UserIdGenerator.maxNodeId(userShards), ttl,
+                maxBackwardMillis);
+    }
+
+    @Bean
+    public UserIdGenerator userIdGenerator(
+            UserShards userShards,
+            ObjectProvider<NodeIdLease> nodeIdLease,
+            @Value("${app.id.node-id:-1}") int nodeId,
+            @Value("${app.id.max-clock-backward-ms:5000}") long maxBackwardMillis) {
+        NodeIdLease lease = nodeIdLease.getIfAvailable();
+        if (lease == null) {
+            return new UserIdGenerator(nodeId, maxBackwardMillis, userShards);
+        }
+        // fails startup when no node is free rather than sharing one
+        UserIdGenerator generator = new UserIdGenerator(lease.acquire(), maxBackwardMillis, userShards, lease);
+        lease.start(generator::reassign);
+        return generator;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer userIdGeneratorCustomizer(UserIdGenerator userIdGenerator) {
+        return properties -> properties.put(UserIdentifierGenerator.GENERATOR_SETTING, userIdGenerator);
+    }
+}
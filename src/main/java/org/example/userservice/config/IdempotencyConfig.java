@@ -0,0 +1,26 @@
+package org.example.userservice.config;
+
+import org.example.userservice.filter.IdempotencyFilter;
+import org.example.userservice.filter.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore idempotencyStore,
+            @Value("${app.idempotency.wait-timeout:PT10S}") Duration waitTimeout) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyStore, waitTimeout));
+        registration.addUrlPatterns("/users", "/users/bulk");
+        return registration;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.userservice.config;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.userservice.event.UserEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.EurekaInstanceConfigBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnProperty(name = "app.cache-invalidation.enabled", havingValue = "true")
+public class KafkaConsumerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${spring.application.name}")
+    private String applicationName;
+
+    @Value("${spring.cloud.client.hostname:localhost}")
+    private String hostname;
+
+    @Value("${server.port:8080}")
+    private String serverPort;
+
+    @Value("${app.cache-invalidation.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${app.cache-invalidation.fetch-max-wait-ms:100}")
+    private int fetchMaxWaitMs;
+
+    // a group of its own per instance, so every instance sees every event. It is named after the instance rather than
+    // the process, so a restart picks up the same group instead of leaving one behind
+    @Bean
+    public ConsumerFactory<String, UserEvent> userEventConsumerFactory(
+            ObjectProvider<EurekaInstanceConfigBean> eurekaInstance) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId(eurekaInstance));
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+
+        // an event that does not parse arrives as a null value instead of stopping the consumer
+        JsonDeserializer<UserEvent> valueDeserializer = new JsonDeserializer<>(UserEvent.class, false);
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserEvent> userEventBatchListenerFactory(
+            ConsumerFactory<String, UserEvent> userEventConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, UserEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(userEventConsumerFactory);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    // runs after the listener containers have stopped, so this instance has already left the group
+    @Bean
+    public DisposableBean userEventGroupCleanup(ObjectProvider<EurekaInstanceConfigBean> eurekaInstance) {
+        String groupId = groupId(eurekaInstance);
+        return () -> {
+            try (AdminClient admin = AdminClient.create(
+                    Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers))) {
+                admin.deleteConsumerGroups(List.of(groupId)).all().get(5, TimeUnit.SECONDS);
+                logger.info("Deleted cache invalidation consumer group {}", groupId);
+            } catch (Exception ex) {
+                // the group expires with its offsets after offsets.retention.minutes
+                logger.warn("Unable to delete cache invalidation consumer group {}: {}", groupId, ex.getMessage());
+            }
+        };
+    }
+
+    private String groupId(ObjectProvider<EurekaInstanceConfigBean> eurekaInstance) {
+        EurekaInstanceConfigBean instance = eurekaInstance.getIfAvailable();
+        String instanceId = instance != null ? instance.getInstanceId() : hostname + ":" + serverPort;
+        return applicationName + "-cache-" + instanceId;
+    }
+}
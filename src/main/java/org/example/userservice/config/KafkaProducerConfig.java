@@ -1,6 +1,7 @@
 package org.example.userservice.config;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.example.userservice.event.UserEventOrigin;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,6 +18,12 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${app.kafka.spill.enabled:false}")
+    private boolean spillEnabled;
+
+    @Value("${app.kafka.spill.max-block-ms:250}")
+    private long spillMaxBlockMs;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -27,12 +34,19 @@ public class KafkaProducerConfig {
                 "org.springframework.kafka.support.serializer.JsonSerializer");
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
+        // only a short block when a full buffer or missing metadata can spill to disk; otherwise the event would be lost.
+        // The publisher spills before the buffer fills, so this mostly bounds waits for metadata
+        if (spillEnabled) {
+            configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, spillMaxBlockMs);
+        }
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(UserEventOrigin userEventOrigin) {
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(producerFactory());
+        kafkaTemplate.setProducerInterceptor(userEventOrigin);
+        return kafkaTemplate;
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package org.example.userservice.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.userservice.converter.UserProtobufHttpMessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.LinkRelationProvider;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+    private final LinkRelationProvider linkRelationProvider;
+
+    @Autowired
+    public MessageConverterConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                                  LinkRelationProvider linkRelationProvider) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.linkRelationProvider = linkRelationProvider;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // swap the default binary Jackson converters for HAL-aware ones; they stay behind JSON, which remains the default for */*
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(halMapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(halMapper(new SmileFactory())));
+        converters.add(new UserProtobufHttpMessageConverter());
+    }
+
+    private ObjectMapper halMapper(JsonFactory factory) {
+        ObjectMapper mapper = objectMapperBuilder.getObject().factory(factory).build();
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                linkRelationProvider, CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+        return mapper;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.userservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.userservice.filter.ServerTimingFilter;
+import org.example.userservice.timing.RequestTimingAspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(name = "app.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingConfig {
+
+    // first in the chain, so the total includes the idempotency and response cache filters
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.server-timing.header:false}") boolean header,
+            @Value("${app.server-timing.metrics-sample-every:10}") int sampleEvery) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(meterRegistry, header, sampleEvery));
+        registration.addUrlPatterns("/users", "/users/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public RequestTimingAspect requestTimingAspect() {
+        return new RequestTimingAspect();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.userservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.userservice.sharding.ShardRoutingDataSource;
+import org.example.userservice.sharding.ShardSchemaInitializer;
+import org.example.userservice.sharding.UserShardRoutingAspect;
+import org.example.userservice.sharding.UserShards;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.sharding.urls}") List<String> urls,
+            @Value("${app.sharding.username:${spring.datasource.username:}}") String username,
+            @Value("${app.sharding.password:${spring.datasource.password:}}") String password) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            // spring.datasource.hikari.* sizes and times out every shard's pool alike
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + shard);
+            meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // a transaction only takes its connection at the first statement, once a repository call has picked the shard
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService shardScatterExecutor(@Value("${app.sharding.scatter-threads:16}") int threads) {
+        return Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("shard-scatter-"));
+    }
+
+    @Bean
+    public UserShardRoutingAspect userShardRoutingAspect(UserShards userShards,
+                                                         @Qualifier("shardScatterExecutor") ExecutorService executor,
+                                                         PlatformTransactionManager transactionManager) {
+        return new UserShardRoutingAspect(userShards, executor, transactionManager);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(
+            ShardRoutingDataSource shardRoutingDataSource,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${spring.flyway.enabled:true}") boolean flywayEnabled,
+            @Value("${spring.flyway.locations:classpath:db/migration}") List<String> flywayLocations,
+            @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchemaInitializer(shardRoutingDataSource, entityManagerFactory,
+                flywayEnabled, flywayLocations, ddlAuto);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.userservice.config;
+
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.filter.UserResponseCacheFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class UserResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<UserResponseCacheFilter> userResponseCacheFilter(UserResponseCache userResponseCache) {
+        FilterRegistrationBean<UserResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new UserResponseCacheFilter(userResponseCache));
+        registration.addUrlPatterns("/users/*");
+        return registration;
+    }
+}
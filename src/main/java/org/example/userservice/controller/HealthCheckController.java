@@ -2,35 +2,47 @@ package org.example.userservice.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
+import org.example.userservice.health.ProbedHealthIndicator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.actuate.health.StatusAggregator;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @Tag(name = "Health Check", description = "Health check endpoints for monitoring")
-public class HealthCheckController implements HealthIndicator {
+public class HealthCheckController {
 
-    @Override
-    public Health health() {
-        Map<String, Object> details = new HashMap<>();
-        details.put("service", "user-service");
-        details.put("status", "UP");
-        details.put("timestamp", System.currentTimeMillis());
+    private final List<ProbedHealthIndicator> indicators;
 
-        return Health.up().withDetails(details).build();
+    @Autowired
+    public HealthCheckController(ObjectProvider<ProbedHealthIndicator> indicators) {
+        this.indicators = indicators.orderedStream().toList();
     }
 
+    // answered from the background-probed snapshots; no database or broker call happens here
     @GetMapping("/actuator/health/custom")
-    @Operation(summary = "Custom health check", description = "Custom health check endpoint")
+    @Operation(summary = "Custom health check", description = "Last probed status of the database, Kafka and the circuit breaker")
     public Map<String, Object> customHealth() {
+        Map<String, String> checks = new LinkedHashMap<>();
+        for (ProbedHealthIndicator indicator : indicators) {
+            checks.put(indicator.getName(), indicator.health().getStatus().getCode());
+        }
+        Set<Status> statuses = checks.values().stream().map(Status::new).collect(Collectors.toSet());
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", statuses.isEmpty() ? Status.UP.getCode()
+                : StatusAggregator.getDefault().getAggregateStatus(statuses).getCode());
         health.put("service", "user-service");
+        health.put("checks", checks);
         health.put("timestamp", java.time.LocalDateTime.now().toString());
         return health;
     }
-}
\ No newline at end of file
+}
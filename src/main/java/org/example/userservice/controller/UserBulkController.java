@@ -0,0 +1,44 @@
+package org.example.userservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.userservice.dto.BulkRequest;
+import org.example.userservice.dto.BulkResponse;
+import org.example.userservice.service.UserBulkService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/users")
+@Tag(name = "User Management", description = "APIs for managing users")
+public class UserBulkController {
+
+    private final UserBulkService userBulkService;
+
+    @Autowired
+    public UserBulkController(UserBulkService userBulkService) {
+        this.userBulkService = userBulkService;
+    }
+
+    @Operation(summary = "Bulk update and delete users",
+            description = "Apply many update and delete operations in chunked transactions and report the outcome of each")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Operations processed, see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkResponse> bulk(
+            @Parameter(description = "Update and delete operations", required = true)
+            @Valid @RequestBody BulkRequest bulkRequest) {
+
+        return ResponseEntity.ok(new BulkResponse(userBulkService.execute(bulkRequest.getOperations())));
+    }
+}
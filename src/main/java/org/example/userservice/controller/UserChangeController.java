@@ -0,0 +1,52 @@
+package org.example.userservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.userservice.event.UserChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/users/changes")
+@Tag(name = "User Changes", description = "Live feed of user changes")
+public class UserChangeController {
+
+    private final UserChangeFeed userChangeFeed;
+    private final long emitterTimeoutMs;
+
+    @Autowired
+    public UserChangeController(UserChangeFeed userChangeFeed,
+                                @Value("${app.changes.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.userChangeFeed = userChangeFeed;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    @Operation(summary = "Stream user changes",
+            description = "Server-Sent Events feed of CREATED, UPDATED and DELETED user events")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "503", description = "Too many subscribers")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @Parameter(description = "Resume after this event id")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        if (!userChangeFeed.subscribe(emitter, lastEventId)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
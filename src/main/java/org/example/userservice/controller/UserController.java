@@ -8,18 +8,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.example.userservice.dto.StaleUserResponse;
 import org.example.userservice.dto.UserRequest;
 import org.example.userservice.dto.UserResource;
 import org.example.userservice.dto.UserResponse;
 import org.example.userservice.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -64,7 +68,7 @@ public class UserController {
 
         EntityModel<UserResource> resource = EntityModel.of(userResource);
         resource.add(linkTo(methodOn(UserController.class).getUserById(userResource.getId())).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        resource.add(linkTo(methodOn(UserController.class).getAllUsers(null, null)).withRel("all-users"));
         resource.add(linkTo(methodOn(UserController.class).updateUser(userResource.getId(), userRequest)).withRel("update"));
         resource.add(linkTo(methodOn(UserController.class).deleteUser(userResource.getId())).withRel("delete"));
 
@@ -88,19 +92,26 @@ public class UserController {
 
         EntityModel<UserResource> resource = EntityModel.of(userResource);
         resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        resource.add(linkTo(methodOn(UserController.class).getAllUsers(null, null)).withRel("all-users"));
         resource.add(linkTo(methodOn(UserController.class).updateUser(id, new UserRequest())).withRel("update"));
         resource.add(linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete"));
         resource.add(linkTo(methodOn(UserController.class).getUserByEmail(userResource.getEmail())).withRel("by-email"));
 
-        return ResponseEntity.ok(resource);
+        return ok(userResponse, resource);
     }
 
-    @Operation(summary = "Get all users", description = "Retrieve a list of all users")
+    @Operation(summary = "Get all users",
+            description = "Retrieve a list of all users, optionally only those created in [createdFrom, createdTo)")
     @ApiResponse(responseCode = "200", description = "List of users retrieved successfully")
     @GetMapping
-    public ResponseEntity<CollectionModel<EntityModel<UserResource>>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
+    public ResponseEntity<CollectionModel<EntityModel<UserResource>>> getAllUsers(
+            @Parameter(description = "Only users created at or after this time", example = "2024-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Only users created before this time", example = "2024-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        List<UserResponse> users = createdFrom == null && createdTo == null
+                ? userService.getAllUsers()
+                : userService.getUsersCreatedBetween(createdFrom, createdTo);
 
 
         List<EntityModel<UserResource>> userResources = users.stream()
@@ -116,7 +127,7 @@ public class UserController {
 
 
         CollectionModel<EntityModel<UserResource>> collection = CollectionModel.of(userResources);
-        collection.add(linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel());
+        collection.add(linkTo(methodOn(UserController.class).getAllUsers(createdFrom, createdTo)).withSelfRel());
         collection.add(linkTo(methodOn(UserController.class).createUser(new UserRequest())).withRel("create-user"));
 
         return ResponseEntity.ok(collection);
@@ -142,7 +153,7 @@ public class UserController {
 
         EntityModel<UserResource> resource = EntityModel.of(userResource);
         resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        resource.add(linkTo(methodOn(UserController.class).getAllUsers(null, null)).withRel("all-users"));
         resource.add(linkTo(methodOn(UserController.class).updateUser(id, userRequest)).withRel("update"));
         resource.add(linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete"));
 
@@ -161,7 +172,7 @@ public class UserController {
 
         userService.deleteUser(id);
 
-        Link allUsersLink = linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users");
+        Link allUsersLink = linkTo(methodOn(UserController.class).getAllUsers(null, null)).withRel("all-users");
 
         return ResponseEntity.noContent()
                 .header("Link", allUsersLink.toString())
@@ -186,9 +197,20 @@ public class UserController {
         EntityModel<UserResource> resource = EntityModel.of(userResource);
         resource.add(linkTo(methodOn(UserController.class).getUserByEmail(email)).withSelfRel());
         resource.add(linkTo(methodOn(UserController.class).getUserById(userResource.getId())).withRel("by-id"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        resource.add(linkTo(methodOn(UserController.class).getAllUsers(null, null)).withRel("all-users"));
 
-        return ResponseEntity.ok(resource);
+        return ok(userResponse, resource);
+    }
+
+    // reads served from the stale store while the circuit is open carry RFC 7234 staleness headers
+    private <T> ResponseEntity<T> ok(UserResponse userResponse, T body) {
+        if (userResponse instanceof StaleUserResponse stale) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.WARNING, "110 - \"Response is Stale\"")
+                    .header(HttpHeaders.AGE, Long.toString(stale.getAgeSeconds()))
+                    .body(body);
+        }
+        return ResponseEntity.ok(body);
     }
 
     private UserResource convertToResource(UserResponse userResponse) {
@@ -0,0 +1,101 @@
+package org.example.userservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.userservice.dto.ImportJobResponse;
+import org.example.userservice.exception.ResourceNotFoundException;
+import org.example.userservice.service.UserImportJob;
+import org.example.userservice.service.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+@RestController
+@RequestMapping("/users/import")
+@Tag(name = "User Import", description = "APIs for bulk loading users from CSV")
+public class UserImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final UserImportService userImportService;
+
+    @Autowired
+    public UserImportController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    @Operation(summary = "Import users from CSV",
+            description = "Stream a CSV with name,email,age columns into the users table")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see counters and rejected rows"),
+            @ApiResponse(responseCode = "422", description = "Import failed and nothing was merged")
+    })
+    @PostMapping(consumes = {TEXT_CSV, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportJobResponse> importUsers(HttpServletRequest request) throws IOException {
+        // read straight from the request stream so the upload is never held in memory
+        try (InputStream csv = request.getInputStream()) {
+            return toResponse(userImportService.importCsv(csv));
+        }
+    }
+
+    @Operation(summary = "Import users from an uploaded CSV file")
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponse> importUsersFile(
+            @Parameter(description = "CSV file with name,email,age columns", required = true)
+            @RequestPart("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return toResponse(userImportService.importCsv(csv));
+        }
+    }
+
+    @Operation(summary = "List recent imports", description = "Progress and throughput of running and recent imports")
+    @GetMapping
+    public ResponseEntity<List<ImportJobResponse>> getImports() {
+        return ResponseEntity.ok(userImportService.getJobs());
+    }
+
+    @Operation(summary = "Get import progress")
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImport(@PathVariable String jobId) {
+        return ResponseEntity.ok(findJob(jobId).toResponse());
+    }
+
+    @Operation(summary = "Download rejected rows", description = "CSV of rows that failed validation or conflicted")
+    @GetMapping(value = "/{jobId}/rejected", produces = TEXT_CSV)
+    public ResponseEntity<Resource> getRejectedRows(@PathVariable String jobId) {
+        UserImportJob job = findJob(jobId);
+        if (!Files.exists(job.getRejectedRowsFile())) {
+            throw new ResourceNotFoundException("No rejected rows for import: " + jobId);
+        }
+        return ResponseEntity.ok(new FileSystemResource(job.getRejectedRowsFile()));
+    }
+
+    private UserImportJob findJob(String jobId) {
+        return userImportService.getJob(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import not found with id: " + jobId));
+    }
+
+    private ResponseEntity<ImportJobResponse> toResponse(UserImportJob job) {
+        HttpStatus status = job.getState() == UserImportJob.State.FAILED ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.OK;
+        return ResponseEntity.status(status).body(job.toResponse());
+    }
+}
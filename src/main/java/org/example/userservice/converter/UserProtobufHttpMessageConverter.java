@@ -0,0 +1,87 @@
+package org.example.userservice.converter;
+
+import org.example.userservice.dto.UserResource;
+import org.example.userservice.proto.LinkMessage;
+import org.example.userservice.proto.UserListMessage;
+import org.example.userservice.proto.UserMessage;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+public class UserProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public UserProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EntityModel.class.isAssignableFrom(clazz) || CollectionModel.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object model, HttpOutputMessage outputMessage) throws IOException {
+        if (model instanceof EntityModel<?> entityModel) {
+            toMessage(entityModel).writeTo(outputMessage.getBody());
+        } else if (model instanceof CollectionModel<?> collectionModel) {
+            UserListMessage.Builder list = UserListMessage.newBuilder();
+            for (Object item : collectionModel.getContent()) {
+                if (!(item instanceof EntityModel<?> entityModel)) {
+                    throw new HttpMessageNotWritableException("Unsupported collection item: " + item);
+                }
+                list.addUsers(toMessage(entityModel));
+            }
+            addLinks(collectionModel.getLinks(), list::addLinks);
+            list.build().writeTo(outputMessage.getBody());
+        }
+    }
+
+    public static UserMessage toMessage(EntityModel<?> entityModel) {
+        if (!(entityModel.getContent() instanceof UserResource user)) {
+            throw new HttpMessageNotWritableException("Unsupported content: " + entityModel.getContent());
+        }
+        UserMessage.Builder message = UserMessage.newBuilder()
+                .setId(user.getId())
+                .setName(user.getName())
+                .setEmail(user.getEmail());
+        if (user.getAge() != null) {
+            message.setAge(user.getAge());
+        }
+        if (user.getCreatedAt() != null) {
+            message.setCreatedAt(user.getCreatedAt());
+        }
+        addLinks(entityModel.getLinks(), message::addLinks);
+        return message.build();
+    }
+
+    private static void addLinks(Links links, Consumer<LinkMessage> sink) {
+        for (Link link : links) {
+            sink.accept(LinkMessage.newBuilder()
+                    .setRel(link.getRel().value())
+                    .setHref(link.getHref())
+                    .build());
+        }
+    }
+}
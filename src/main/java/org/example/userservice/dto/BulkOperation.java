@@ -0,0 +1,81 @@
+package org.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.Objects;
+
+public class BulkOperation {
+
+    public enum Type {
+        UPDATE,
+        DELETE
+    }
+
+    @NotNull
+    private Type op;
+
+    // accepted as a string or a number
+    @NotNull
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long id;
+
+    @Valid
+    private UserRequest user;
+
+    public BulkOperation() {
+    }
+
+    public BulkOperation(Type op, Long id, UserRequest user) {
+        this.op = op;
+        this.id = id;
+        this.user = user;
+    }
+
+    public static BulkOperation update(Long id, UserRequest user) {
+        return new BulkOperation(Type.UPDATE, id, user);
+    }
+
+    public static BulkOperation delete(Long id) {
+        return new BulkOperation(Type.DELETE, id, null);
+    }
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UserRequest getUser() {
+        return user;
+    }
+
+    public void setUser(UserRequest user) {
+        this.user = user;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BulkOperation that = (BulkOperation) o;
+        return op == that.op &&
+                Objects.equals(id, that.id) &&
+                Objects.equals(user, that.user);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(op, id, user);
+    }
+}
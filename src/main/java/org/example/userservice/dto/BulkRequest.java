@@ -0,0 +1,29 @@
+package org.example.userservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkRequest {
+
+    @NotEmpty
+    @Size(max = 10000)
+    private List<@Valid BulkOperation> operations = new ArrayList<>();
+
+    public BulkRequest() {
+    }
+
+    public BulkRequest(List<BulkOperation> operations) {
+        this.operations = operations;
+    }
+
+    public List<BulkOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BulkOperation> operations) {
+        this.operations = operations;
+    }
+}
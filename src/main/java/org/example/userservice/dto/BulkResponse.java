@@ -0,0 +1,31 @@
+package org.example.userservice.dto;
+
+import java.util.List;
+
+public class BulkResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BulkResult> results;
+
+    public BulkResponse() {
+    }
+
+    public BulkResponse(List<BulkResult> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(BulkResult::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BulkResult> getResults() {
+        return results;
+    }
+}
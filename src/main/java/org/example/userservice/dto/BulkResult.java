@@ -0,0 +1,88 @@
+package org.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Objects;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResult {
+
+    public enum Status {
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        DUPLICATE_EMAIL,
+        INVALID,
+        FAILED
+    }
+
+    private int index;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long id;
+    private BulkOperation.Type op;
+    private Status status;
+    private String message;
+
+    public BulkResult() {
+    }
+
+    public BulkResult(int index, Long id, BulkOperation.Type op, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.op = op;
+        this.status = status;
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.UPDATED || status == Status.DELETED;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BulkOperation.Type getOp() {
+        return op;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BulkResult that = (BulkResult) o;
+        return index == that.index &&
+                Objects.equals(id, that.id) &&
+                op == that.op &&
+                status == that.status &&
+                Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, id, op, status, message);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{" +
+                "index=" + index +
+                ", id=" + id +
+                ", op=" + op +
+                ", status=" + status +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJobResponse {
+
+    private String id;
+    private String state;
+    private String loader;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long rowsRead;
+    private long rowsStaged;
+    private long rowsInserted;
+    private long rowsRejected;
+    private long rowsPerSecond;
+    private String rejectedRowsFile;
+    private String error;
+
+    public ImportJobResponse() {
+    }
+
+    public ImportJobResponse(String id, String state, String loader, LocalDateTime startedAt, LocalDateTime finishedAt,
+                             long rowsRead, long rowsStaged, long rowsInserted, long rowsRejected,
+                             long rowsPerSecond, String rejectedRowsFile, String error) {
+        this.id = id;
+        this.state = state;
+        this.loader = loader;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.rowsRead = rowsRead;
+        this.rowsStaged = rowsStaged;
+        this.rowsInserted = rowsInserted;
+        this.rowsRejected = rowsRejected;
+        this.rowsPerSecond = rowsPerSecond;
+        this.rejectedRowsFile = rejectedRowsFile;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getLoader() {
+        return loader;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsStaged() {
+        return rowsStaged;
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public String getRejectedRowsFile() {
+        return rejectedRowsFile;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class StaleUserResponse extends UserResponse {
+
+    @JsonIgnore
+    private final long ageSeconds;
+
+    public StaleUserResponse(UserResponse response, long ageSeconds) {
+        super(response.getId(), response.getName(), response.getEmail(), response.getAge(), response.getCreatedAt());
+        this.ageSeconds = ageSeconds;
+    }
+
+    public long getAgeSeconds() {
+        return ageSeconds;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.userservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.hateoas.server.core.Relation;
@@ -10,6 +11,7 @@ import java.util.Objects;
 public class UserResource extends RepresentationModel<UserResource> {
 
     @JsonProperty("id")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long id;
 
     @JsonProperty("name")
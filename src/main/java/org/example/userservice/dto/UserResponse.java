@@ -1,12 +1,15 @@
 package org.example.userservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class UserResponse {
 
+    // Snowflake ids exceed 2^53, the largest integer a JSON number keeps exact in JavaScript
     @JsonProperty("id")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long id;
 
     @JsonProperty("name")
@@ -0,0 +1,287 @@
+package org.example.userservice.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+@Component
+public class UserChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    private final UserChangeRingBuffer ringBuffer;
+    private final ObjectMapper objectMapper;
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    // rendered frames, indexed like the ring buffer and only touched by the writer thread
+    private final Object[] frames;
+    private final long[] frameSequences;
+    private final AtomicLong delivered = new AtomicLong();
+    private final int maxSubscribers;
+    private final int maxBatch;
+    private final int queueSize;
+    private final long heartbeatNanos;
+    private final long sendTimeoutNanos;
+    private final ExecutorService senders;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    @Autowired
+    public UserChangeFeed(ObjectMapper objectMapper,
+                          @Value("${app.changes.buffer-size:65536}") int bufferSize,
+                          @Value("${app.changes.max-subscribers:20000}") int maxSubscribers,
+                          @Value("${app.changes.max-batch:256}") int maxBatch,
+                          @Value("${app.changes.heartbeat-ms:15000}") long heartbeatMs,
+                          @Value("${app.changes.subscriber-queue-size:1024}") int queueSize,
+                          @Value("${app.changes.sender-threads:8}") int senderThreads,
+                          @Value("${app.changes.send-timeout-ms:30000}") long sendTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.ringBuffer = new UserChangeRingBuffer(bufferSize);
+        this.frames = new Object[ringBuffer.getCapacity()];
+        this.frameSequences = new long[ringBuffer.getCapacity()];
+        this.maxSubscribers = maxSubscribers;
+        this.maxBatch = maxBatch;
+        this.queueSize = queueSize;
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        AtomicInteger senderIds = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-change-sender-" + senderIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::broadcast, "user-change-feed");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(writer);
+        senders.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+    }
+
+    public void publish(UserEvent event) {
+        ringBuffer.append(event);
+        LockSupport.unpark(writer);
+    }
+
+    public void publishAfterCommit(UserEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+        } else {
+            publish(event);
+        }
+    }
+
+    // resumes after lastEventId when it is still buffered, otherwise starts with new events
+    public boolean subscribe(SseEmitter emitter, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return false;
+        }
+        long last = ringBuffer.getLastSequence();
+        long next = lastEventId == null || lastEventId > last ? last + 1 : lastEventId + 1;
+        Subscriber subscriber = new Subscriber(emitter, next, queueSize);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(ex -> subscribers.remove(emitter));
+        subscribers.put(emitter, subscriber);
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getLastSequence() {
+        return ringBuffer.getLastSequence();
+    }
+
+    // the writer only renders frames and queues them; sending happens on the sender pool, so a client whose socket
+    // stalls holds one sender thread and its own queue, and falls behind into the skip-ahead marker on its own
+    private void broadcast() {
+        long lastHeartbeat = System.nanoTime();
+        while (running) {
+            boolean progressed = false;
+            long last = ringBuffer.getLastSequence();
+            long now = System.nanoTime();
+            boolean heartbeat = now - lastHeartbeat > heartbeatNanos;
+            for (Subscriber subscriber : subscribers.values()) {
+                if (subscriber.isStalled(now, sendTimeoutNanos)) {
+                    drop(subscriber, new IOException("Client did not accept a change for " + sendTimeoutNanos / 1_000_000 + " ms"));
+                    continue;
+                }
+                if (subscriber.next <= last) {
+                    progressed |= enqueue(subscriber, last);
+                } else if (heartbeat && subscriber.queue.isEmpty()) {
+                    subscriber.queue.offer(new Frame(SseEmitter.event().comment("heartbeat").build(), false));
+                }
+                if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+                    schedule(subscriber);
+                }
+            }
+            if (heartbeat) {
+                lastHeartbeat = now;
+            }
+            if (!progressed) {
+                LockSupport.parkNanos(this, heartbeatNanos);
+            }
+        }
+    }
+
+    // moves the subscriber's next batch into its queue, as far as the queue has room
+    private boolean enqueue(Subscriber subscriber, long last) {
+        long oldest = ringBuffer.getOldestSequence();
+        if (subscriber.next < oldest) {
+            // the consumer fell further behind than the buffer holds
+            long skipped = oldest - subscriber.next;
+            Frame marker = new Frame(SseEmitter.event().name("skipped").data(skipped, MediaType.TEXT_PLAIN).build(), false);
+            if (!subscriber.queue.offer(marker)) {
+                return false;
+            }
+            subscriber.next = oldest;
+        }
+        long end = Math.min(last, subscriber.next + maxBatch - 1);
+        long sequence = subscriber.next;
+        for (; sequence <= end; sequence++) {
+            Set<ResponseBodyEmitter.DataWithMediaType> frame = frame(sequence);
+            if (frame == null || !subscriber.queue.offer(new Frame(frame, true))) {
+                break;
+            }
+        }
+        boolean progressed = sequence > subscriber.next;
+        subscriber.next = sequence;
+        return progressed;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException stopping) {
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Frame frame;
+            while ((frame = subscriber.queue.poll()) != null) {
+                subscriber.sendingSince = System.nanoTime();
+                subscriber.emitter.send(frame.data());
+                subscriber.sendingSince = 0;
+                if (frame.event()) {
+                    delivered.incrementAndGet();
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            drop(subscriber, ex);
+        } finally {
+            subscriber.sendingSince = 0;
+            subscriber.draining.set(false);
+            // the writer refills the queue and reschedules whatever arrived meanwhile
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void drop(Subscriber subscriber, Exception cause) {
+        if (subscribers.remove(subscriber.emitter) != null) {
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(cause);
+        }
+    }
+
+    // every subscriber gets the same pre-rendered frame, so each event is serialized once
+    @SuppressWarnings("unchecked")
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(long sequence) {
+        int slot = (int) (sequence & (frames.length - 1));
+        if (frameSequences[slot] == sequence) {
+            return (Set<ResponseBodyEmitter.DataWithMediaType>) frames[slot];
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame;
+        UserChangeRingBuffer.Entry entry = ringBuffer.get(sequence);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            frame = SseEmitter.event()
+                    .id(Long.toString(sequence))
+                    .name(entry.getEvent().getEventType())
+                    .data(objectMapper.writeValueAsString(entry.getEvent()), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException ex) {
+            logger.error("Unable to serialize user change {}: {}", sequence, ex.getMessage());
+            frame = SseEmitter.event().id(Long.toString(sequence)).comment("unserializable").build();
+        }
+        frames[slot] = frame;
+        frameSequences[slot] = sequence;
+        return frame;
+    }
+
+    private record Frame(Set<ResponseBodyEmitter.DataWithMediaType> data, boolean event) {
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // only touched by the writer thread
+        private long next;
+        private volatile long sendingSince;
+
+        Subscriber(SseEmitter emitter, long next, int queueSize) {
+            this.emitter = emitter;
+            this.next = next;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        boolean isStalled(long now, long sendTimeoutNanos) {
+            long since = sendingSince;
+            return since != 0 && now - since > sendTimeoutNanos;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.userservice.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class UserChangeRingBuffer {
+
+    public static final class Entry {
+
+        private final long sequence;
+        private final UserEvent event;
+
+        Entry(long sequence, UserEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public UserEvent getEvent() {
+            return event;
+        }
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong claimed = new AtomicLong();
+
+    public UserChangeRingBuffer(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // sequences start at 1; writers never wait for readers, slow readers are overwritten
+    public long append(UserEvent event) {
+        long sequence = claimed.incrementAndGet();
+        slots.set((int) (sequence & mask), new Entry(sequence, event));
+        return sequence;
+    }
+
+    public long getLastSequence() {
+        return claimed.get();
+    }
+
+    public long getOldestSequence() {
+        return Math.max(1, claimed.get() - capacity + 1);
+    }
+
+    // null when the sequence was not written yet or has already been overwritten
+    public Entry get(long sequence) {
+        Entry entry = slots.get((int) (sequence & mask));
+        return entry != null && entry.sequence == sequence ? entry : null;
+    }
+}
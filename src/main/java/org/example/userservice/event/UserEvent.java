@@ -1,11 +1,15 @@
 package org.example.userservice.event;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+
 import java.time.LocalDateTime;
 
 public class UserEvent {
-    private String eventType; // CREATED, DELETED
+    private String eventType; // CREATED, UPDATED, DELETED
     private String email;
     private LocalDateTime timestamp;
+    // the change feed hands these to browsers, which read JSON numbers as doubles
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long userId;
 
     public UserEvent() {
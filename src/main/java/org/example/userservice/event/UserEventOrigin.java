@@ -0,0 +1,46 @@
+package org.example.userservice.event;
+
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+// Identifies this process on the user-events topic. Every record it produces carries the id in a header, so its own
+// consumer can tell them apart from writes made on other instances; a restart is a new origin.
+@Component
+public class UserEventOrigin implements ProducerInterceptor<String, Object> {
+
+    public static final String HEADER = "origin";
+
+    private final byte[] idBytes = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    public boolean isOwn(Headers headers) {
+        Header origin = headers.lastHeader(HEADER);
+        return origin != null && Arrays.equals(origin.value(), idBytes);
+    }
+
+    @Override
+    public ProducerRecord<String, Object> onSend(ProducerRecord<String, Object> record) {
+        record.headers().remove(HEADER).add(HEADER, idBytes);
+        return record;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
@@ -0,0 +1,357 @@
+package org.example.userservice.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+@Component
+public class UserEventSpillQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEventSpillQueue.class);
+
+    // record layout: int length, int crc32, long appended-at millis, payload
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int CURSOR_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "events-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private MappedByteBuffer cursor;
+    private long writeSegment;
+    private int writeOffset;
+    private long readSegment;
+    private int readOffset;
+    private long backlog;
+    private long dropped;
+
+    @Autowired
+    public UserEventSpillQueue(MeterRegistry meterRegistry,
+                               @Value("${app.kafka.spill.enabled:false}") boolean enabled,
+                               @Value("${app.kafka.spill.directory:${java.io.tmpdir}/user-service/spill}") String directory,
+                               @Value("${app.kafka.spill.segment-bytes:67108864}") int segmentBytes,
+                               @Value("${app.kafka.spill.max-segments:16}") int maxSegments) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        if (enabled) {
+            Gauge.builder("user.events.spill.backlog", this, UserEventSpillQueue::getBacklog)
+                    .description("Events waiting in the local spill queue")
+                    .register(meterRegistry);
+            Gauge.builder("user.events.spill.age", this, UserEventSpillQueue::getOldestAgeSeconds)
+                    .description("Age of the oldest spilled event")
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("user.events.spill.segments", this, UserEventSpillQueue::getSegmentCount)
+                    .description("Spill segment files on disk")
+                    .register(meterRegistry);
+            Gauge.builder("user.events.spill.dropped", this, UserEventSpillQueue::getDropped)
+                    .description("Events dropped because the spill queue was full")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, map(file, segmentBytes));
+                }
+            }
+        }
+
+        cursor = map(directory.resolve("cursor"), CURSOR_BYTES);
+        readSegment = cursor.getLong(0);
+        readOffset = cursor.getInt(8);
+        if (!segments.containsKey(readSegment)) {
+            readSegment = segments.isEmpty() ? 0 : segments.firstKey();
+            readOffset = 0;
+        }
+        // segments before the cursor were fully drained before the last shutdown
+        for (Long id : new ArrayList<>(segments.headMap(readSegment).keySet())) {
+            deleteSegment(id);
+        }
+        if (segments.isEmpty()) {
+            segments.put(readSegment, map(segmentPath(readSegment), segmentBytes));
+        }
+
+        writeSegment = segments.lastKey();
+        writeOffset = 0;
+        MappedByteBuffer tail = segments.get(writeSegment);
+        while (readRecordLength(tail, writeOffset) > 0) {
+            writeOffset += readRecordLength(tail, writeOffset);
+        }
+
+        backlog = 0;
+        long segment = readSegment;
+        int offset = readOffset;
+        while (true) {
+            int length = readRecordLength(segments.get(segment), offset);
+            if (length > 0) {
+                backlog++;
+                offset += length;
+            } else if (segment != writeSegment) {
+                segment = segments.higherKey(segment);
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+        saveCursor();
+        if (backlog > 0) {
+            logger.warn("Recovered {} spilled user events from {}", backlog, directory);
+        }
+    }
+
+    public synchronized boolean append(UserEvent userEvent) {
+        byte[] payload = encode(userEvent);
+        int length = RECORD_HEADER_BYTES + payload.length;
+        if (length > segmentBytes) {
+            dropped++;
+            return false;
+        }
+        if (writeOffset + length > segmentBytes) {
+            if (segments.size() >= maxSegments) {
+                dropped++;
+                return false;
+            }
+            writeSegment++;
+            writeOffset = 0;
+            try {
+                segments.put(writeSegment, map(segmentPath(writeSegment), segmentBytes));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        MappedByteBuffer tail = segments.get(writeSegment);
+        tail.put(writeOffset + RECORD_HEADER_BYTES, payload);
+        tail.putLong(writeOffset + 8, System.currentTimeMillis());
+        tail.putInt(writeOffset + 4, (int) crc.getValue());
+        // the length goes in last so a torn write reads as the end of the segment
+        tail.putInt(writeOffset, length);
+        writeOffset += length;
+        backlog++;
+        return true;
+    }
+
+    public synchronized List<UserEvent> peek(int max) {
+        List<UserEvent> events = new ArrayList<>();
+        if (!enabled) {
+            return events;
+        }
+        long segment = readSegment;
+        int offset = readOffset;
+        while (events.size() < max) {
+            MappedByteBuffer buffer = segments.get(segment);
+            int length = readRecordLength(buffer, offset);
+            if (length > 0) {
+                events.add(decode(buffer, offset, length));
+                offset += length;
+            } else if (segment != writeSegment) {
+                segment = segments.higherKey(segment);
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+        return events;
+    }
+
+    public synchronized void acknowledge(int count) {
+        int remaining = count;
+        while (remaining > 0) {
+            int length = readRecordLength(segments.get(readSegment), readOffset);
+            if (length > 0) {
+                readOffset += length;
+                backlog--;
+                remaining--;
+            } else if (readSegment != writeSegment) {
+                long drained = readSegment;
+                readSegment = segments.higherKey(readSegment);
+                readOffset = 0;
+                deleteSegment(drained);
+            } else {
+                break;
+            }
+        }
+        saveCursor();
+    }
+
+    public synchronized long getBacklog() {
+        return backlog;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public synchronized double getOldestAgeSeconds() {
+        if (backlog == 0) {
+            return 0;
+        }
+        long segment = readSegment;
+        int offset = readOffset;
+        while (readRecordLength(segments.get(segment), offset) == 0 && segment != writeSegment) {
+            segment = segments.higherKey(segment);
+            offset = 0;
+        }
+        long appendedAt = segments.get(segment).getLong(offset + 8);
+        return Math.max(0, System.currentTimeMillis() - appendedAt) / 1000.0;
+    }
+
+    public synchronized void flush() {
+        if (!enabled || cursor == null) {
+            return;
+        }
+        segments.get(writeSegment).force();
+        cursor.force();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled || cursor == null) {
+            return;
+        }
+        for (MappedByteBuffer segment : segments.values()) {
+            segment.force();
+        }
+        cursor.force();
+    }
+
+    private int readRecordLength(MappedByteBuffer buffer, int offset) {
+        if (offset + RECORD_HEADER_BYTES > segmentBytes) {
+            return 0;
+        }
+        int length = buffer.getInt(offset);
+        if (length < RECORD_HEADER_BYTES || offset + length > segmentBytes) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + RECORD_HEADER_BYTES, length - RECORD_HEADER_BYTES));
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? length : 0;
+    }
+
+    private void saveCursor() {
+        cursor.putLong(0, readSegment);
+        cursor.putInt(8, readOffset);
+    }
+
+    private void deleteSegment(long id) {
+        segments.remove(id);
+        try {
+            Files.deleteIfExists(segmentPath(id));
+        } catch (IOException ex) {
+            logger.warn("Unable to delete drained spill segment {}: {}", id, ex.getMessage());
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    static byte[] encode(UserEvent userEvent) {
+        byte[] eventType = bytes(userEvent.getEventType());
+        byte[] email = bytes(userEvent.getEmail());
+        ByteBuffer buffer = ByteBuffer.allocate(4 + length(eventType) + 4 + length(email) + 8 + 8 + 4);
+        putBytes(buffer, eventType);
+        putBytes(buffer, email);
+        buffer.putLong(userEvent.getUserId() != null ? userEvent.getUserId() : NULL_LONG);
+        LocalDateTime timestamp = userEvent.getTimestamp();
+        buffer.putLong(timestamp != null ? timestamp.toEpochSecond(ZoneOffset.UTC) : NULL_LONG);
+        buffer.putInt(timestamp != null ? timestamp.getNano() : 0);
+        return buffer.array();
+    }
+
+    private UserEvent decode(MappedByteBuffer segment, int offset, int length) {
+        ByteBuffer buffer = segment.slice(offset + RECORD_HEADER_BYTES, length - RECORD_HEADER_BYTES);
+        UserEvent userEvent = new UserEvent();
+        userEvent.setEventType(getString(buffer));
+        userEvent.setEmail(getString(buffer));
+        long userId = buffer.getLong();
+        userEvent.setUserId(userId != NULL_LONG ? userId : null);
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        userEvent.setTimestamp(epochSecond != NULL_LONG ? LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC) : null);
+        return userEvent;
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] value) {
+        buffer.putInt(value != null ? value.length : -1);
+        if (value != null) {
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// a sharded user keeps its shard for life, so it cannot take an email that hashes to another one
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class EmailShardMismatchException extends RuntimeException {
+    public EmailShardMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.userservice.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.userservice.model.IdempotencyRecord;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final Duration waitTimeout;
+
+    public IdempotencyFilter(IdempotencyStore store, Duration waitTimeout) {
+        this.store = store;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String key = request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+        String fingerprint = fingerprint(request, body);
+
+        while (true) {
+            Optional<IdempotencyRecord> stored = store.find(key);
+            if (stored.isPresent()) {
+                replay(stored.get(), fingerprint, response);
+                return;
+            }
+
+            CompletableFuture<IdempotencyRecord> execution = new CompletableFuture<>();
+            CompletableFuture<IdempotencyRecord> running = store.claim(key, execution);
+            if (running == null) {
+                execute(key, fingerprint, new CachedBodyRequest(request, body), response, chain);
+                return;
+            }
+
+            IdempotencyRecord result;
+            try {
+                result = running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                reject(response, HttpStatus.CONFLICT, "A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(ex);
+            } catch (ExecutionException ex) {
+                result = null;
+            }
+            if (result != null) {
+                replay(result, fingerprint, response);
+                return;
+            }
+        }
+    }
+
+    private void execute(String key, String fingerprint, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain chain) throws ServletException, IOException {
+        // another request may have finished between the lookup and the claim
+        Optional<IdempotencyRecord> stored = store.find(key);
+        if (stored.isPresent()) {
+            store.release(key, stored.get());
+            replay(stored.get(), fingerprint, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            // only successful results are kept; failures may succeed on a later retry
+            if (status >= 200 && status < 300) {
+                store.complete(key, fingerprint, status, wrapper.getContentType(),
+                        wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray());
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.abandon(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotencyRecord record, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            return;
+        }
+        response.setStatus(record.getStatus());
+        if (record.getContentType() != null) {
+            response.setContentType(record.getContentType());
+        }
+        if (record.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, record.getLocation());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(record.getBody().length);
+        response.getOutputStream().write(record.getBody());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // the representation is part of the stored result, so a different Accept is a different request
+            digest.update(String.valueOf(request.getHeader(HttpHeaders.ACCEPT)).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request.getContentType()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.userservice.filter;
+
+import org.example.userservice.model.IdempotencyRecord;
+import org.example.userservice.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final int maxCachedBodyBytes;
+    private final Map<String, IdempotencyRecord> cache;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${app.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${app.idempotency.max-cached-body-bytes:65536}") int maxCachedBodyBytes) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.maxCachedBodyBytes = maxCachedBodyBytes;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<IdempotencyRecord> find(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            IdempotencyRecord cached = cache.get(key);
+            if (cached != null) {
+                if (cached.getExpiresAt().isAfter(now)) {
+                    return Optional.of(cached);
+                }
+                cache.remove(key);
+            }
+        }
+        try {
+            Optional<IdempotencyRecord> stored = repository.findById(key)
+                    .filter(record -> record.getExpiresAt().isAfter(now));
+            stored.ifPresent(this::cache);
+            return stored;
+        } catch (DataAccessException ex) {
+            logger.warn("Could not read idempotency key: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // returns the execution already running for the key, or null when the caller now owns it
+    public CompletableFuture<IdempotencyRecord> claim(String key, CompletableFuture<IdempotencyRecord> execution) {
+        return inFlight.putIfAbsent(key, execution);
+    }
+
+    public IdempotencyRecord complete(String key, String fingerprint, int status, String contentType,
+                                      String location, byte[] body) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord(key, fingerprint, status, contentType, location,
+                body, now, now.plus(ttl));
+        cache(record);
+        try {
+            repository.save(record);
+        } catch (DataAccessException ex) {
+            logger.warn("Could not store idempotency key, it is only kept in memory: {}", ex.getMessage());
+        }
+        release(key, record);
+        return record;
+    }
+
+    // waiters receive null and retry the request themselves
+    public void abandon(String key) {
+        release(key, null);
+    }
+
+    public void release(String key, IdempotencyRecord record) {
+        CompletableFuture<IdempotencyRecord> execution = inFlight.remove(key);
+        if (execution != null) {
+            execution.complete(record);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (cache) {
+            cache.values().removeIf(record -> !record.getExpiresAt().isAfter(now));
+        }
+        try {
+            int purged = repository.deleteExpired(now);
+            if (purged > 0) {
+                logger.debug("Purged {} expired idempotency keys", purged);
+            }
+        } catch (DataAccessException ex) {
+            logger.warn("Could not purge idempotency keys: {}", ex.getMessage());
+        }
+    }
+
+    private void cache(IdempotencyRecord record) {
+        if (record.getBody().length > maxCachedBodyBytes) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(record.getKey(), record);
+        }
+    }
+}
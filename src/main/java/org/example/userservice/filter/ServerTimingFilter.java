@@ -0,0 +1,200 @@
+package org.example.userservice.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.example.userservice.timing.RequestTiming;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Times each request by phase (see RequestTiming) and reports one request in metrics-sample-every in
+// http.server.timing and, when the header is switched on, every request in a Server-Timing header. Headers cannot
+// follow the body, so the header is set just before the response's first byte; for bodies that fit the converter's
+// buffer that is after serialization has finished.
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean header;
+    private final int sampleEvery;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Timer total;
+    private final Timer service;
+    private final Timer repository;
+    private final Timer mapping;
+    private final Timer serialization;
+    private final Timer kafka;
+
+    public ServerTimingFilter(MeterRegistry meterRegistry, boolean header, int sampleEvery) {
+        this.header = header;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        this.total = timer(meterRegistry, "total");
+        this.service = timer(meterRegistry, "svc");
+        this.repository = timer(meterRegistry, "db");
+        this.mapping = timer(meterRegistry, "map");
+        this.serialization = timer(meterRegistry, "ser");
+        this.kafka = timer(meterRegistry, "kafka");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        TimingResponse timed = header ? new TimingResponse(response, timing) : null;
+        try {
+            chain.doFilter(request, timed != null ? timed : response);
+        } finally {
+            long now = System.nanoTime();
+            if (timed != null) {
+                timed.writeHeader(now);
+            }
+            if (sequence.getAndIncrement() % sampleEvery == 0) {
+                record(timing, now);
+            }
+            timing.end();
+        }
+    }
+
+    private void record(RequestTiming timing, long now) {
+        total.record(timing.totalNanos(now), TimeUnit.NANOSECONDS);
+        if (timing.count(RequestTiming.Phase.SERVICE) > 0) {
+            service.record(timing.nanos(RequestTiming.Phase.SERVICE), TimeUnit.NANOSECONDS);
+        }
+        if (timing.count(RequestTiming.Phase.REPOSITORY) > 0) {
+            repository.record(timing.nanos(RequestTiming.Phase.REPOSITORY), TimeUnit.NANOSECONDS);
+        }
+        if (timing.count(RequestTiming.Phase.HANDLER) > 0) {
+            mapping.record(timing.mappingNanos(), TimeUnit.NANOSECONDS);
+            serialization.record(timing.serializationNanos(now), TimeUnit.NANOSECONDS);
+        }
+        if (timing.count(RequestTiming.Phase.KAFKA) > 0) {
+            kafka.record(timing.nanos(RequestTiming.Phase.KAFKA), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("http.server.timing")
+                .description("Sampled per-request time by phase, as reported in the Server-Timing header")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    // sets the header on the first write, flush or error, while the response can still take headers
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTiming timing;
+        private ServletOutputStream outputStream;
+        private boolean written;
+
+        TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void writeHeader(long now) {
+            if (!written && !isCommitted()) {
+                setHeader(SERVER_TIMING_HEADER, timing.header(now));
+            }
+            written = true;
+        }
+
+        private void writeHeader() {
+            if (!written) {
+                writeHeader(System.nanoTime());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new TimingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeader();
+            super.sendRedirect(location);
+        }
+
+        private final class TimingOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            TimingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                writeHeader();
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                writeHeader();
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writeHeader();
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                writeHeader();
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.userservice.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.userservice.cache.UserResponseCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Serves GET /users/{id} from fully encoded bodies; misses go through the controller and fill the cache.
+public class UserResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern USER_PATH = Pattern.compile("/users/(\\d{1,18})");
+
+    private final UserResponseCache cache;
+
+    public UserResponseCacheFilter(UserResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !USER_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Matcher matcher = USER_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        matcher.matches();
+        long userId = Long.parseLong(matcher.group(1));
+        UserResponseCache.Key key = new UserResponseCache.Key(userId, variant(request));
+        // the same URL encodes to JSON, HAL, CBOR, Smile or Protobuf, so shared caches must key on Accept as well
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        Optional<UserResponseCache.Entry> cached = cache.get(key);
+        if (cached.isPresent()) {
+            write(cached.get(), request, response);
+            return;
+        }
+
+        long version = cache.version(userId);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        // stale fallbacks carry a Warning header and must not outlive the outage that produced them
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+                && wrapper.getHeader(HttpHeaders.WARNING) == null) {
+            byte[] body = wrapper.getContentAsByteArray();
+            String etag = etag(body);
+            cache.put(key, version, wrapper.getContentType(), etag, body);
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void write(UserResponseCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        if (entry.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    // the body depends on the negotiated media type and on the host the HATEOAS links are built from
+    private static String variant(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return (accept != null ? accept : "") + ' ' + request.getScheme() + "://" + request.getServerName()
+                + ':' + request.getServerPort() + request.getContextPath();
+    }
+
+    private static String etag(byte[] body) {
+        return "\"0" + DigestUtils.md5DigestAsHex(body) + '"';
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.userservice.grpc;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import jakarta.validation.Validator;
+import org.example.userservice.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true")
+public class GrpcServerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerConfig.class);
+
+    @Bean
+    public UserGrpcService userGrpcService(UserService userService, Validator validator,
+                                           @Value("${app.grpc.list-page-size:500}") int listPageSize) {
+        return new UserGrpcService(userService, validator, listPageSize);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService grpcExecutor(@Value("${app.grpc.threads:16}") int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "grpc-user-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    @Bean
+    public GrpcServerLifecycle grpcServerLifecycle(UserGrpcService userGrpcService,
+                                                   ExecutorService grpcExecutor,
+                                                   @Value("${app.grpc.port:9090}") int port) {
+        Server server = NettyServerBuilder.forPort(port)
+                .executor(grpcExecutor)
+                .addService(userGrpcService)
+                .build();
+        return new GrpcServerLifecycle(server);
+    }
+
+    public static class GrpcServerLifecycle implements SmartLifecycle {
+
+        private final Server server;
+        private volatile boolean running;
+
+        public GrpcServerLifecycle(Server server) {
+            this.server = server;
+        }
+
+        @Override
+        public void start() {
+            try {
+                server.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to start gRPC server", e);
+            }
+            running = true;
+            logger.info("gRPC server started on port {}", server.getPort());
+        }
+
+        @Override
+        public void stop() {
+            server.shutdown();
+            try {
+                if (!server.awaitTermination(10, TimeUnit.SECONDS)) {
+                    server.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                server.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            running = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        public int getPort() {
+            return server.getPort();
+        }
+    }
+}
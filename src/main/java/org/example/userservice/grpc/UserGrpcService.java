@@ -0,0 +1,223 @@
+package org.example.userservice.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.userservice.dto.UserRequest;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.exception.DuplicateEmailException;
+import org.example.userservice.exception.EmailShardMismatchException;
+import org.example.userservice.exception.ResourceNotFoundException;
+import org.example.userservice.proto.DeleteUserResponse;
+import org.example.userservice.proto.ListUsersRequest;
+import org.example.userservice.proto.LookupRequest;
+import org.example.userservice.proto.LookupResponse;
+import org.example.userservice.proto.UpdateUserRequest;
+import org.example.userservice.proto.UserEmailRequest;
+import org.example.userservice.proto.UserIdRequest;
+import org.example.userservice.proto.UserInput;
+import org.example.userservice.proto.UserMessage;
+import org.example.userservice.proto.UserServiceGrpc;
+import org.example.userservice.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class UserGrpcService extends UserServiceGrpc.UserServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserGrpcService.class);
+
+    private final UserService userService;
+    private final Validator validator;
+    private final int listPageSize;
+
+    @Autowired
+    public UserGrpcService(UserService userService, Validator validator, int listPageSize) {
+        this.userService = userService;
+        this.validator = validator;
+        this.listPageSize = listPageSize;
+    }
+
+    @Override
+    public void createUser(UserInput request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> toMessage(userService.createUser(toUserRequest(request))));
+    }
+
+    @Override
+    public void getUserById(UserIdRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> toMessage(userService.getUserById(request.getId())));
+    }
+
+    @Override
+    public void getUserByEmail(UserEmailRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> toMessage(userService.getUserByEmail(request.getEmail())));
+    }
+
+    @Override
+    public void updateUser(UpdateUserRequest request, StreamObserver<UserMessage> responseObserver) {
+        unary(responseObserver, () -> toMessage(userService.updateUser(request.getId(), toUserRequest(request.getUser()))));
+    }
+
+    @Override
+    public void deleteUser(UserIdRequest request, StreamObserver<DeleteUserResponse> responseObserver) {
+        unary(responseObserver, () -> {
+            userService.deleteUser(request.getId());
+            return DeleteUserResponse.newBuilder().setId(request.getId()).build();
+        });
+    }
+
+    @Override
+    public void listUsers(ListUsersRequest request, StreamObserver<UserMessage> responseObserver) {
+        ServerCallStreamObserver<UserMessage> call = (ServerCallStreamObserver<UserMessage>) responseObserver;
+        UserPager pager = new UserPager(call);
+        call.setOnCancelHandler(pager::cancel);
+        // keeps sending while the transport takes more, then picks up again once it drains
+        call.setOnReadyHandler(pager);
+        pager.run();
+    }
+
+    @Override
+    public StreamObserver<LookupRequest> lookupUsers(StreamObserver<LookupResponse> responseObserver) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(LookupRequest request) {
+                LookupResponse.Builder response = LookupResponse.newBuilder().setRequest(request);
+                try {
+                    UserResponse user = switch (request.getKeyCase()) {
+                        case ID -> userService.getUserById(request.getId());
+                        case EMAIL -> userService.getUserByEmail(request.getEmail());
+                        case KEY_NOT_SET -> throw new IllegalArgumentException("Lookup key is required");
+                    };
+                    response.setFound(true).setUser(toMessage(user));
+                } catch (RuntimeException ex) {
+                    response.setFound(false).setError(String.valueOf(toStatus(ex).getStatus().getDescription()));
+                }
+                responseObserver.onNext(response.build());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                logger.debug("Lookup stream cancelled by client: {}", throwable.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    private <T> void unary(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatus(ex));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    private UserRequest toUserRequest(UserInput input) {
+        UserRequest userRequest = new UserRequest(input.getName(), input.getEmail(),
+                input.hasAge() ? input.getAge() : null);
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(userRequest);
+        if (!violations.isEmpty()) {
+            String description = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw Status.INVALID_ARGUMENT.withDescription(description).asRuntimeException();
+        }
+        return userRequest;
+    }
+
+    private StatusRuntimeException toStatus(RuntimeException ex) {
+        if (ex instanceof StatusRuntimeException statusException) {
+            return statusException;
+        }
+        Status status;
+        if (ex instanceof ResourceNotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (ex instanceof DuplicateEmailException) {
+            status = Status.ALREADY_EXISTS;
+        } else if (ex instanceof EmailShardMismatchException) {
+            status = Status.FAILED_PRECONDITION;
+        } else if (ex instanceof IllegalArgumentException) {
+            status = Status.INVALID_ARGUMENT;
+        } else {
+            // the message may carry SQL or host names, so it only goes to the log
+            logger.error("gRPC call failed", ex);
+            return Status.INTERNAL.withDescription("Internal error").asRuntimeException();
+        }
+        return status.withDescription(ex.getMessage()).asRuntimeException();
+    }
+
+    // Streams users a keyset page at a time. Runs on the call's serialized executor, both from listUsers and
+    // from the on-ready callback, so its state needs no locking.
+    private final class UserPager implements Runnable {
+
+        private final ServerCallStreamObserver<UserMessage> call;
+        private Iterator<UserResponse> page = Collections.emptyIterator();
+        private long lastId = Long.MIN_VALUE;
+        private volatile boolean done;
+
+        UserPager(ServerCallStreamObserver<UserMessage> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!done && call.isReady()) {
+                    if (!page.hasNext()) {
+                        List<UserResponse> users = userService.getUsersAfter(lastId, listPageSize);
+                        if (users.isEmpty()) {
+                            done = true;
+                            call.onCompleted();
+                            return;
+                        }
+                        page = users.iterator();
+                    }
+                    UserResponse user = page.next();
+                    lastId = user.getId();
+                    call.onNext(toMessage(user));
+                }
+            } catch (RuntimeException ex) {
+                if (!done) {
+                    done = true;
+                    call.onError(toStatus(ex));
+                }
+            }
+        }
+
+        void cancel() {
+            done = true;
+        }
+    }
+
+    static UserMessage toMessage(UserResponse user) {
+        UserMessage.Builder message = UserMessage.newBuilder()
+                .setId(user.getId())
+                .setName(user.getName())
+                .setEmail(user.getEmail());
+        if (user.getAge() != null) {
+            message.setAge(user.getAge());
+        }
+        if (user.getCreatedAt() != null) {
+            message.setCreatedAt(user.getCreatedAt().toString());
+        }
+        return message.build();
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.userservice.health;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// State and failure rate of the userService breaker. Reading them is in-memory, but the snapshot is still refreshed on
+// the probe schedule (and on every state transition) so all indicators answer the same way. An open breaker is DOWN,
+// half-open is UNKNOWN while trial calls decide.
+@Component
+@ConditionalOnProperty(name = "app.health.enabled", havingValue = "true", matchIfMissing = true)
+public class CircuitBreakerHealthIndicator extends ProbedHealthIndicator {
+
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public CircuitBreakerHealthIndicator(CircuitBreakerRegistry circuitBreakerRegistry,
+                                         @Value("${app.health.stale-after-ms:30000}") long staleAfterMs) {
+        super("circuitBreaker", staleAfterMs);
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("userService");
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        update(check());
+        circuitBreaker.getEventPublisher().onStateTransition(event -> update(check()));
+    }
+
+    @Override
+    protected Health check() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        Health.Builder health = switch (state) {
+            case CLOSED, DISABLED, METRICS_ONLY -> Health.up();
+            case HALF_OPEN -> Health.unknown();
+            case OPEN, FORCED_OPEN -> Health.down();
+        };
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        return health.withDetail("state", state.name())
+                .withDetail("failureRate", metrics.getFailureRate())
+                .withDetail("slowCallRate", metrics.getSlowCallRate())
+                .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+                .build();
+    }
+}
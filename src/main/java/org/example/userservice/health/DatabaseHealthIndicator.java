@@ -0,0 +1,56 @@
+package org.example.userservice.health;
+
+import org.example.userservice.sharding.ShardRoutingDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+// Borrows a pool connection and validates it; with sharding every shard is checked and one failing shard is DOWN.
+@Component
+@ConditionalOnProperty(name = "app.health.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseHealthIndicator extends ProbedHealthIndicator {
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final int validationTimeoutSeconds;
+
+    @Autowired
+    public DatabaseHealthIndicator(DataSource dataSource,
+                                   ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                   @Value("${app.health.probe-timeout-ms:2000}") long timeoutMs,
+                                   @Value("${app.health.stale-after-ms:30000}") long staleAfterMs) {
+        super("database", staleAfterMs);
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        if (shards != null) {
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                dataSources.add(shards.getShard(shard));
+            }
+        } else {
+            dataSources.add(dataSource);
+        }
+        this.validationTimeoutSeconds = (int) Math.max(1, timeoutMs / 1000);
+    }
+
+    @Override
+    protected Health check() throws Exception {
+        Health.Builder health = Health.up();
+        for (int i = 0; i < dataSources.size(); i++) {
+            String key = dataSources.size() > 1 ? "shard-" + i : "database";
+            try (Connection connection = dataSources.get(i).getConnection()) {
+                if (connection.isValid(validationTimeoutSeconds)) {
+                    health.withDetail(key, connection.getMetaData().getDatabaseProductName());
+                } else {
+                    health.down().withDetail(key, "connection failed validation");
+                }
+            }
+        }
+        return health.build();
+    }
+}
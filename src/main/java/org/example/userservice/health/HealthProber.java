@@ -0,0 +1,91 @@
+package org.example.userservice.health;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Runs every ProbedHealthIndicator's check in parallel on a fixed delay and stores the results, each bounded by the
+// probe timeout. Checks that time out or throw are stored as DOWN with the reason.
+@Component
+@ConditionalOnProperty(name = "app.health.enabled", havingValue = "true", matchIfMissing = true)
+public class HealthProber {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthProber.class);
+
+    private final List<ProbedHealthIndicator> indicators;
+    private final long timeoutMs;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "health-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public HealthProber(List<ProbedHealthIndicator> indicators,
+                        @Value("${app.health.probe-timeout-ms:2000}") long timeoutMs) {
+        this.indicators = indicators;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.health.probe-interval-ms:5000}")
+    public void probe() {
+        Map<ProbedHealthIndicator, Future<Health>> running = new LinkedHashMap<>();
+        for (ProbedHealthIndicator indicator : indicators) {
+            if (!indicator.tryStartProbe()) {
+                indicator.update(Health.down().withDetail("error", "previous probe has not returned").build());
+                continue;
+            }
+            running.put(indicator, executor.submit(() -> {
+                try {
+                    return indicator.check();
+                } finally {
+                    indicator.probeFinished();
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Map.Entry<ProbedHealthIndicator, Future<Health>> entry : running.entrySet()) {
+            ProbedHealthIndicator indicator = entry.getKey();
+            Health health;
+            try {
+                health = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                entry.getValue().cancel(true);
+                health = Health.down().withDetail("error", "timed out after " + timeoutMs + " ms").build();
+            } catch (ExecutionException ex) {
+                health = Health.down(ex.getCause() instanceof Exception cause ? cause : ex).build();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Status previous = indicator.health().getStatus();
+            indicator.update(health);
+            if (!previous.equals(health.getStatus())) {
+                logger.info("Health of {} changed from {} to {}", indicator.getName(), previous, health.getStatus());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
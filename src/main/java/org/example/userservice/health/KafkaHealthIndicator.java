@@ -0,0 +1,65 @@
+package org.example.userservice.health;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.DescribeClusterOptions;
+import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.example.userservice.event.UserEventSpillQueue;
+import org.example.userservice.service.UserEventPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Asks the cluster the producer writes to for its brokers, and reports whether the producer is spilling events.
+// The producer's own metadata is cached for minutes and cannot tell a dead broker from an idle one.
+@Component
+@ConditionalOnProperty(name = "app.health.enabled", havingValue = "true", matchIfMissing = true)
+public class KafkaHealthIndicator extends ProbedHealthIndicator {
+
+    private final AdminClient adminClient;
+    private final UserEventPublisher userEventPublisher;
+    private final UserEventSpillQueue spillQueue;
+    private final int timeoutMs;
+
+    @Autowired
+    public KafkaHealthIndicator(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                                UserEventPublisher userEventPublisher,
+                                UserEventSpillQueue spillQueue,
+                                @Value("${app.health.probe-timeout-ms:2000}") long timeoutMs,
+                                @Value("${app.health.stale-after-ms:30000}") long staleAfterMs) {
+        super("kafka", staleAfterMs);
+        this.timeoutMs = (int) timeoutMs;
+        this.adminClient = AdminClient.create(Map.<String, Object>of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                AdminClientConfig.CLIENT_ID_CONFIG, "user-service-health",
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, this.timeoutMs,
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, this.timeoutMs));
+        this.userEventPublisher = userEventPublisher;
+        this.spillQueue = spillQueue;
+    }
+
+    @Override
+    protected Health check() throws Exception {
+        DescribeClusterResult cluster = adminClient.describeCluster(new DescribeClusterOptions().timeoutMs(timeoutMs));
+        int brokers = cluster.nodes().get(timeoutMs, TimeUnit.MILLISECONDS).size();
+        Health.Builder health = brokers > 0 ? Health.up() : Health.down();
+        health.withDetail("clusterId", cluster.clusterId().get(timeoutMs, TimeUnit.MILLISECONDS))
+                .withDetail("brokers", brokers)
+                .withDetail("spilling", userEventPublisher.isSpilling());
+        if (spillQueue.isEnabled()) {
+            health.withDetail("spillBacklog", spillQueue.getBacklog());
+        }
+        return health.build();
+    }
+
+    @PreDestroy
+    public void close() {
+        adminClient.close();
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.userservice.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// A health indicator whose check runs on HealthProber's schedule. health() only reads the last snapshot, so health
+// endpoints and load-balancer probes never wait on I/O; a snapshot older than stale-after reports DOWN, which is what
+// a stuck prober looks like from outside.
+public abstract class ProbedHealthIndicator implements HealthIndicator {
+
+    private record Snapshot(Health health, long probedAt) {
+    }
+
+    private final String name;
+    private final long staleAfterNanos;
+    private final AtomicReference<Snapshot> snapshot;
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    protected ProbedHealthIndicator(String name, long staleAfterMs) {
+        this.name = name;
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(staleAfterMs);
+        this.snapshot = new AtomicReference<>(
+                new Snapshot(Health.outOfService().withDetail("reason", "not probed yet").build(), System.nanoTime()));
+    }
+
+    // runs on a probe thread; may block, HealthProber bounds it with a timeout
+    protected abstract Health check() throws Exception;
+
+    @Override
+    public Health health() {
+        Snapshot current = snapshot.get();
+        long age = System.nanoTime() - current.probedAt();
+        if (age > staleAfterNanos) {
+            return Health.down()
+                    .withDetail("error", "no probe result for " + TimeUnit.NANOSECONDS.toMillis(age) + " ms")
+                    .withDetail("last", current.health().getStatus().getCode())
+                    .build();
+        }
+        return current.health();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void update(Health health) {
+        snapshot.set(new Snapshot(health, System.nanoTime()));
+    }
+
+    // a check that outlived its timeout keeps its thread; no second one is started until it returns
+    boolean tryStartProbe() {
+        return probing.compareAndSet(false, true);
+    }
+
+    void probeFinished() {
+        probing.set(false);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.userservice.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+// Holds a row of user_id_nodes (PostgreSQL, V9) for this instance, so two running instances never share a node id.
+// Expiry uses the database clock and is renewed every third of the ttl. This instance stops vouching for its node a
+// tenth of the ttl before the expiry it last wrote, and another instance can only take the row after that expiry.
+// A new holder also waits until its own clock is past last_millis, so clock skew between holders cannot repeat ids.
+public class NodeIdLease implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeIdLease.class);
+
+    // the row that expired longest ago, so a node that was just released is reused last
+    private static final String ACQUIRE =
+            "UPDATE user_id_nodes SET owner = ?, expires_at = now() + make_interval(secs => ?), "
+                    + "last_millis = GREATEST(last_millis, ?) "
+                    + "WHERE node_id = (SELECT node_id FROM user_id_nodes WHERE node_id <= ? AND expires_at < now() "
+                    + "ORDER BY expires_at, node_id LIMIT 1 FOR UPDATE SKIP LOCKED) "
+                    + "RETURNING node_id, last_millis";
+    private static final String RENEW =
+            "UPDATE user_id_nodes SET expires_at = now() + make_interval(secs => ?), last_millis = GREATEST(last_millis, ?) "
+                    + "WHERE node_id = ? AND owner = ?";
+    private static final String RELEASE =
+            "UPDATE user_id_nodes SET owner = NULL, expires_at = now(), last_millis = ? WHERE node_id = ? AND owner = ?";
+
+    private record Lease(int node, long lastMillis) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String owner;
+    private final int maxNodeId;
+    private final Duration ttl;
+    private final long maxBackwardMillis;
+    private final ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-id-node-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile int node = -1;
+    private volatile long heldUntilNanos;
+    private volatile IntConsumer onReassigned = node -> { };
+
+    public NodeIdLease(JdbcTemplate jdbcTemplate, String owner, int maxNodeId, Duration ttl, long maxBackwardMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.owner = owner;
+        this.maxNodeId = maxNodeId;
+        this.ttl = ttl;
+        this.maxBackwardMillis = maxBackwardMillis;
+    }
+
+    // takes a free node or fails; call start() once the generator for that node exists
+    public int acquire() {
+        long started = System.nanoTime();
+        List<Lease> leases = jdbcTemplate.query(ACQUIRE,
+                (rs, rowNum) -> new Lease(rs.getInt("node_id"), rs.getLong("last_millis")),
+                owner, ttl.toSeconds(), System.currentTimeMillis() + ttl.toMillis(), maxNodeId);
+        if (leases.isEmpty()) {
+            throw new IllegalStateException("All user id nodes 0.." + maxNodeId + " are leased by running instances");
+        }
+        Lease lease = leases.get(0);
+        waitForClock(lease.lastMillis());
+        heldUntilNanos = deadline(started);
+        node = lease.node();
+        logger.info("Leased user id node {} as {}", node, owner);
+        return node;
+    }
+
+    public void start(IntConsumer onReassigned) {
+        this.onReassigned = onReassigned;
+        long period = Math.max(1, ttl.toMillis() / 3);
+        renewer.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public int node() {
+        return node;
+    }
+
+    // called for every id; a lease that could not be renewed in time must not issue ids another holder may issue
+    public void checkHeld() {
+        if (System.nanoTime() - heldUntilNanos > 0) {
+            throw new IllegalStateException("Lease of user id node " + node + " has expired; ids are refused until it is renewed");
+        }
+    }
+
+    void renew() {
+        long started = System.nanoTime();
+        try {
+            int renewed = jdbcTemplate.update(RENEW, ttl.toSeconds(), System.currentTimeMillis() + ttl.toMillis(), node, owner);
+            if (renewed == 1) {
+                heldUntilNanos = deadline(started);
+                return;
+            }
+            // only possible after our lease expired and another instance took the node
+            logger.warn("Lease of user id node {} was taken over, leasing another one", node);
+            int previous = node;
+            int leased = acquire();
+            if (leased != previous) {
+                onReassigned.accept(leased);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Unable to renew lease of user id node {}: {}", node, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        renewer.shutdownNow();
+        heldUntilNanos = System.nanoTime();
+        try {
+            jdbcTemplate.update(RELEASE, System.currentTimeMillis(), node, owner);
+        } catch (RuntimeException ex) {
+            logger.warn("Unable to release user id node {}, it frees up when the lease expires: {}", node, ex.getMessage());
+        }
+    }
+
+    private long deadline(long started) {
+        return started + ttl.toNanos() - ttl.toNanos() / 10;
+    }
+
+    private void waitForClock(long lastMillis) {
+        long behind = lastMillis - System.currentTimeMillis();
+        if (behind > maxBackwardMillis) {
+            throw new IllegalStateException("Clock is " + behind + " ms behind the previous holder of the user id node");
+        }
+        if (behind >= 0) {
+            try {
+                Thread.sleep(behind + 1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the clock to pass the previous node holder", ex);
+            }
+        }
+    }
+}
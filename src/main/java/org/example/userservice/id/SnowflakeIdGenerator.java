@@ -0,0 +1,77 @@
+package org.example.userservice.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// 64-bit ids: 41 bits of milliseconds since EPOCH_MILLIS, 10 bits of node and 12 bits of per-millisecond sequence.
+// The last issued millisecond and sequence share one AtomicLong, so an id costs a CAS and never a lock or a round trip.
+public class SnowflakeIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    // every id issued 2^31 ms (about 25 days) or more after the epoch is at least this; database identities stay below
+    public static final long MIN_ID = 1L << 53;
+
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_MILLIS = (1L << (63 - TIMESTAMP_SHIFT)) - 1;
+
+    private final long node;
+    private final long maxBackwardMillis;
+    private final LongSupplier clock;
+    // (milliseconds since the epoch << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int node, long maxBackwardMillis) {
+        this(node, maxBackwardMillis, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(int node, long maxBackwardMillis, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + ", got " + node);
+        }
+        this.node = (long) node << SEQUENCE_BITS;
+        this.maxBackwardMillis = maxBackwardMillis;
+        this.clock = clock;
+    }
+
+    public long nextId() {
+        while (true) {
+            long previous = last.get();
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long next;
+            if (now > previousMillis) {
+                if (now > MAX_MILLIS) {
+                    throw new IllegalStateException("Clock is past the last millisecond a 41-bit timestamp can hold");
+                }
+                next = now << SEQUENCE_BITS;
+            } else if (previousMillis - now > maxBackwardMillis) {
+                // ids of a clock this far behind could repeat ones issued before it was set back
+                throw new IllegalStateException("Clock moved back " + (previousMillis - now)
+                        + " ms, more than the tolerated " + maxBackwardMillis + " ms");
+            } else if ((previous & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                // sequence of this millisecond is used up; wait for the clock instead of running ahead of it
+                Thread.onSpinWait();
+                continue;
+            } else {
+                // same millisecond, or a clock set back within the tolerance: keep counting on the last one
+                next = previous + 1;
+            }
+            if (last.compareAndSet(previous, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | node | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+
+    public static long epochMillisOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+}
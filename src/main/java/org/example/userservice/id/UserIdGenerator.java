@@ -0,0 +1,64 @@
+package org.example.userservice.id;
+
+import org.example.userservice.model.User;
+import org.example.userservice.sharding.UserShards;
+
+// Issues User ids on this node. With sharding, the low SHARD_BITS of the node field carry the shard the user's email
+// hashes to, so UserShards routes the id without a lookup; each shard then counts its own sequence.
+public class UserIdGenerator {
+
+    private final long maxBackwardMillis;
+    private final UserShards userShards;
+    private final NodeIdLease lease;
+    private volatile SnowflakeIdGenerator[] generators;
+
+    // userShards may be null when ids are issued outside the application context, which is never sharded
+    public UserIdGenerator(int nodeId, long maxBackwardMillis, UserShards userShards) {
+        this(nodeId, maxBackwardMillis, userShards, null);
+    }
+
+    // with a lease, ids are refused whenever the lease is not held, and the node follows the lease if it moves
+    public UserIdGenerator(int nodeId, long maxBackwardMillis, UserShards userShards, NodeIdLease lease) {
+        this.maxBackwardMillis = maxBackwardMillis;
+        this.userShards = userShards != null && userShards.isEnabled() ? userShards : null;
+        this.lease = lease;
+        this.generators = generatorsFor(nodeId);
+    }
+
+    public long nextId(User user) {
+        if (lease != null) {
+            lease.checkHeld();
+        }
+        SnowflakeIdGenerator[] current = generators;
+        if (userShards == null) {
+            return current[0].nextId();
+        }
+        return current[userShards.shardOfEmail(user.getEmailNormalized())].nextId();
+    }
+
+    // NodeIdLease waits for the clock to pass the previous holder's last millisecond before handing out the node
+    public void reassign(int nodeId) {
+        generators = generatorsFor(nodeId);
+    }
+
+    private SnowflakeIdGenerator[] generatorsFor(int nodeId) {
+        if (userShards == null) {
+            return new SnowflakeIdGenerator[]{new SnowflakeIdGenerator(nodeId, maxBackwardMillis)};
+        }
+        int maxNode = maxNodeId(userShards);
+        if (nodeId < 0 || nodeId > maxNode) {
+            throw new IllegalArgumentException("With sharding the node id must be between 0 and " + maxNode
+                    + ", got " + nodeId);
+        }
+        SnowflakeIdGenerator[] shardGenerators = new SnowflakeIdGenerator[userShards.count()];
+        for (int shard = 0; shard < shardGenerators.length; shard++) {
+            shardGenerators[shard] = new SnowflakeIdGenerator((nodeId << UserShards.SHARD_BITS) | shard, maxBackwardMillis);
+        }
+        return shardGenerators;
+    }
+
+    // the largest node id a deployment of this shape can give each instance
+    public static int maxNodeId(UserShards userShards) {
+        return userShards.isEnabled() ? SnowflakeIdGenerator.MAX_NODE >> UserShards.SHARD_BITS : SnowflakeIdGenerator.MAX_NODE;
+    }
+}
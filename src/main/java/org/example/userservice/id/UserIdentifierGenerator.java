@@ -0,0 +1,34 @@
+package org.example.userservice.id;
+
+import org.example.userservice.model.User;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// Hibernate side of UserIdGenerator: ids are assigned before the insert, so saves need no generated-key round trip
+// and inserts batch. The application's generator arrives through the Hibernate settings (see IdGeneratorConfig).
+public class UserIdentifierGenerator implements IdentifierGenerator {
+
+    public static final String GENERATOR_SETTING = "app.id.user-id-generator";
+
+    private UserIdGenerator generator;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object configured = serviceRegistry.getService(ConfigurationService.class).getSettings().get(GENERATOR_SETTING);
+        // a made-up generator would not know the node or the shards, and its ids could collide or route wrongly
+        if (!(configured instanceof UserIdGenerator userIdGenerator)) {
+            throw new IllegalStateException(GENERATOR_SETTING + " is not set; import IdGeneratorConfig");
+        }
+        generator = userIdGenerator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return generator.nextId((User) object);
+    }
+}
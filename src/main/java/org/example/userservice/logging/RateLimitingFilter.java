@@ -0,0 +1,58 @@
+package org.example.userservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimitingFilter extends Filter<ILoggingEvent> {
+
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private int maxPerSecond = 100;
+    private Level threshold = Level.WARN;
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (event.getLevel().isGreaterOrEqual(threshold)) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(event.getLoggerName(), name -> new Window());
+        if (window.tryAcquire(event.getTimeStamp() / 1000, maxPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.incrementAndGet();
+        return FilterReply.DENY;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    public void setThreshold(String threshold) {
+        this.threshold = Level.toLevel(threshold, Level.WARN);
+    }
+
+    private static final class Window {
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean tryAcquire(long now, int limit) {
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.userservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps one in sampleEvery calls to one logger. A turbo filter runs before Logback builds the event, so the dropped
+// calls never allocate a LoggingEvent or reach an appender. Level checks (no message yet) always pass: Hibernate
+// checks before every statement, and a denied check would also drop the sampled call that follows it.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private String loggerName;
+    private int sampleEvery = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format == null || !logger.getName().equals(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        return sequence.getAndIncrement() % sampleEvery == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+}
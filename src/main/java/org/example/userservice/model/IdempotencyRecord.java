@@ -0,0 +1,99 @@
+package org.example.userservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 600)
+    private String key;
+
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    @Column(name = "content_type", length = 200)
+    private String contentType;
+
+    @Column(name = "location", length = 1000)
+    private String location;
+
+    @Column(name = "body", nullable = false, length = 16777216)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, String fingerprint, int status, String contentType, String location,
+                             byte[] body, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.contentType = contentType;
+        this.location = location;
+        this.body = body;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IdempotencyRecord that = (IdempotencyRecord) o;
+        return Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key);
+    }
+}
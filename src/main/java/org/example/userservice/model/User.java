@@ -1,9 +1,9 @@
 package org.example.userservice.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
@@ -12,15 +12,31 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.example.userservice.id.UserIdentifierGenerator;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
 @Table(name = "users")
+@SQLRestriction("deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 public class User {
 
+    // ids are assigned by the application; the identity stays for rows inserted in bulk by SQL, whose ids it keeps
+    // below SnowflakeIdGenerator.MIN_ID
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "user-id")
+    @GenericGenerator(name = "user-id", type = UserIdentifierGenerator.class)
+    @Column(name = "id", columnDefinition = "BIGINT GENERATED BY DEFAULT AS IDENTITY")
     private Long id;
 
     @NotBlank
@@ -31,9 +47,14 @@ public class User {
     @NotBlank
     @Email
     @Size(max = 150)
-    @Column(name = "email", nullable = false, unique = true, length = 150)
+    @Column(name = "email", nullable = false, length = 150)
     private String email;
 
+    // lookup and uniqueness key; kept in step with email by setEmail
+    @NaturalId(mutable = true)
+    @Column(name = "email_normalized", nullable = false, length = 150)
+    private String emailNormalized;
+
     @Min(0)
     @Max(150)
     @Column(name = "age")
@@ -42,13 +63,20 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public User() {
     }
 
     public User(String name, String email, Integer age) {
         this.name = name;
-        this.email = email;
         this.age = age;
+        setEmail(email);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     @PrePersist
@@ -78,6 +106,11 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    public String getEmailNormalized() {
+        return emailNormalized;
     }
 
     public Integer getAge() {
@@ -96,6 +129,14 @@ public class User {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
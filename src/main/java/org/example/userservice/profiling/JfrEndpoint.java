@@ -0,0 +1,205 @@
+package org.example.userservice.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// /actuator/jfr: starts a time-boxed Flight Recorder recording, then serves the .jfr file and a summary of it.
+//   POST /actuator/jfr                    {"settings": "profile", "durationSeconds": 30}
+//   GET  /actuator/jfr                    recordings kept on disk
+//   GET  /actuator/jfr/{id}               top CPU methods, allocation sites and lock contention
+//   GET  /actuator/jfr/{id}/download      the recording file
+// One recording runs at a time; the oldest finished ones are deleted once more than max-recordings are kept.
+@Component
+@WebEndpoint(id = "jfr")
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class JfrEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrEndpoint.class);
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    public record RecordingInfo(long id, String settings, Instant started, Duration duration, String state, long bytes) {
+    }
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private final int maxRecordings;
+    private final String applicationPackage;
+    private final int top;
+    private final Map<Long, Entry> recordings = new LinkedHashMap<>();
+
+    @Autowired
+    public JfrEndpoint(@Value("${app.jfr.directory:${java.io.tmpdir}/user-service/jfr}") String directory,
+                       @Value("${app.jfr.max-duration:PT5M}") Duration maxDuration,
+                       @Value("${app.jfr.max-recordings:5}") int maxRecordings,
+                       @Value("${app.jfr.application-package:org.example.userservice}") String applicationPackage,
+                       @Value("${app.jfr.top:20}") int top) {
+        this.directory = Paths.get(directory);
+        this.maxDuration = maxDuration;
+        this.maxRecordings = maxRecordings;
+        this.applicationPackage = applicationPackage;
+        this.top = top;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Object> start(@Nullable String settings, @Nullable Integer durationSeconds) {
+        String name = settings != null ? settings : "profile";
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : Duration.ofSeconds(30);
+        if (!SETTINGS.contains(name) || duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            return new WebEndpointResponse<>("settings must be one of " + SETTINGS + " and durationSeconds between 1 and "
+                    + maxDuration.toSeconds(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (recordings.values().stream().anyMatch(entry -> entry.recording.getState() == RecordingState.RUNNING)) {
+            return new WebEndpointResponse<>("A recording is already running", WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            Files.createDirectories(directory);
+            Recording recording = new Recording(Configuration.getConfiguration(name));
+            recording.setName("user-service-" + name);
+            recording.setToDisk(true);
+            recording.setDuration(duration);
+            Path file = directory.resolve("recording-" + recording.getId() + ".jfr");
+            recording.setDestination(file);
+            recording.start();
+            Entry entry = new Entry(recording, name, file);
+            recordings.put(recording.getId(), entry);
+            deleteOldest();
+            logger.info("Started {} s JFR recording {} with {} settings", duration.toSeconds(), recording.getId(), name);
+            return new WebEndpointResponse<>(entry.info(), WebEndpointResponse.STATUS_OK);
+        } catch (IOException | ParseException ex) {
+            logger.error("Unable to start JFR recording: {}", ex.getMessage());
+            return new WebEndpointResponse<>(ex.getMessage(), WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ReadOperation
+    public synchronized List<RecordingInfo> recordings() {
+        List<RecordingInfo> infos = new ArrayList<>();
+        for (Entry entry : recordings.values()) {
+            infos.add(entry.info());
+        }
+        return infos;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Object> summary(@Selector long id) {
+        Entry entry = finished(id);
+        if (entry == null) {
+            return notReady(id);
+        }
+        try {
+            return new WebEndpointResponse<>(entry.summary(applicationPackage, top), WebEndpointResponse.STATUS_OK);
+        } catch (IOException ex) {
+            logger.error("Unable to read JFR recording {}: {}", id, ex.getMessage());
+            return new WebEndpointResponse<>(ex.getMessage(), WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id, @Selector String file) {
+        Entry entry = "download".equals(file) ? finished(id) : null;
+        if (entry == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(entry.file), WebEndpointResponse.STATUS_OK);
+    }
+
+    // a recording that reached its duration has written its file and is closed on first access
+    private synchronized Entry finished(long id) {
+        Entry entry = recordings.get(id);
+        if (entry == null || entry.recording.getState() == RecordingState.RUNNING
+                || entry.recording.getState() == RecordingState.NEW || entry.recording.getState() == RecordingState.DELAYED) {
+            return null;
+        }
+        if (entry.recording.getState() == RecordingState.STOPPED) {
+            entry.recording.close();
+        }
+        return Files.exists(entry.file) ? entry : null;
+    }
+
+    private WebEndpointResponse<Object> notReady(long id) {
+        Entry entry;
+        synchronized (this) {
+            entry = recordings.get(id);
+        }
+        if (entry == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(entry.info(), WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+    }
+
+    private void deleteOldest() {
+        while (recordings.size() > maxRecordings) {
+            Long oldest = recordings.keySet().iterator().next();
+            Entry entry = recordings.remove(oldest);
+            entry.recording.close();
+            try {
+                Files.deleteIfExists(entry.file);
+            } catch (IOException ex) {
+                logger.warn("Unable to delete JFR recording {}: {}", entry.file, ex.getMessage());
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Recording recording;
+        private final String settings;
+        private final Path file;
+        private final Instant started = Instant.now();
+        private JfrSummary summary;
+
+        Entry(Recording recording, String settings, Path file) {
+            this.recording = recording;
+            this.settings = settings;
+            this.file = file;
+        }
+
+        RecordingInfo info() {
+            long bytes;
+            try {
+                bytes = Files.exists(file) ? Files.size(file) : 0;
+            } catch (IOException ex) {
+                bytes = 0;
+            }
+            return new RecordingInfo(recording.getId(), settings, started, recording.getDuration(),
+                    recording.getState().name(), bytes);
+        }
+
+        // parsed once; the file does not change after the recording stops
+        synchronized JfrSummary summary(String applicationPackage, int top) throws IOException {
+            if (summary == null) {
+                summary = JfrSummary.read(file, applicationPackage, top);
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.userservice.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+// Top CPU methods, allocation sites and contended locks of a finished recording, read with jdk.jfr.consumer.
+// Sites are the top frame of each sample; the "application" lists use the first frame inside the application package
+// instead, which is where time spent in JDK or library code was asked for.
+public record JfrSummary(long cpuSamples,
+                         List<Site> cpuMethods,
+                         List<Site> applicationCpuMethods,
+                         long allocatedBytes,
+                         List<Site> allocationSites,
+                         List<Site> applicationAllocationSites,
+                         long contendedLocks,
+                         List<Site> lockContention) {
+
+    // count is samples or contended acquisitions; weight is bytes (allocations) or nanoseconds blocked (locks)
+    public record Site(String site, long count, long weight) {
+    }
+
+    public static JfrSummary read(Path file, String applicationPackage, int top) throws IOException {
+        Tally cpu = new Tally();
+        Tally applicationCpu = new Tally();
+        Tally allocations = new Tally();
+        Tally applicationAllocations = new Tally();
+        Tally locks = new Tally();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        cpu.add(topFrame(event.getStackTrace()), 0);
+                        applicationCpu.add(applicationFrame(event.getStackTrace(), applicationPackage), 0);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        RecordedClass objectClass = event.getClass("objectClass");
+                        String type = objectClass != null ? objectClass.getName() : "?";
+                        allocations.add(type + " at " + topFrame(event.getStackTrace()), weight);
+                        applicationAllocations.add(type + " at " + applicationFrame(event.getStackTrace(), applicationPackage), weight);
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        RecordedClass monitorClass = event.getClass("monitorClass");
+                        String monitor = monitorClass != null ? monitorClass.getName() : "?";
+                        locks.add(monitor + " at " + topFrame(event.getStackTrace()), event.getDuration().toNanos());
+                    }
+                    case "jdk.ThreadPark" -> {
+                        // only parks on java.util.concurrent locks; idle pool threads park on conditions and queues
+                        RecordedClass parkedClass = event.getClass("parkedClass");
+                        if (parkedClass != null && parkedClass.getName().contains("Lock")) {
+                            locks.add(parkedClass.getName() + " at " + applicationFrame(event.getStackTrace(), applicationPackage),
+                                    event.getDuration().toNanos());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        return new JfrSummary(cpu.total, cpu.top(top, false), applicationCpu.top(top, false),
+                allocations.totalWeight, allocations.top(top, true), applicationAllocations.top(top, true),
+                locks.total, locks.top(top, true));
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "?";
+        }
+        return describe(stackTrace.getFrames().get(0));
+    }
+
+    // falls back to the top frame when no frame of the stack belongs to the application
+    private static String applicationFrame(RecordedStackTrace stackTrace, String applicationPackage) {
+        if (stackTrace == null) {
+            return "?";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(applicationPackage)) {
+                return describe(frame);
+            }
+        }
+        return topFrame(stackTrace);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static final class Tally {
+
+        private final Map<String, long[]> sites = new HashMap<>();
+        private long total;
+        private long totalWeight;
+
+        void add(String site, long weight) {
+            long[] counts = sites.computeIfAbsent(site, key -> new long[2]);
+            counts[0]++;
+            counts[1] += weight;
+            total++;
+            totalWeight += weight;
+        }
+
+        List<Site> top(int limit, boolean byWeight) {
+            ToLongFunction<Site> rank = byWeight ? Site::weight : Site::count;
+            return sites.entrySet().stream()
+                    .map(entry -> new Site(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                    .sorted(Comparator.comparingLong(rank).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+    }
+}
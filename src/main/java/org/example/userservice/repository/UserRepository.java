@@ -1,21 +1,52 @@
 package org.example.userservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.userservice.dto.UserResponse;
 import org.example.userservice.model.User;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
-    Optional<User> findByEmail(String email);
-
-    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.email = :email AND u.id != :excludeId")
+    // email arguments are matched against the normalized column, see User#normalizeEmail
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.emailNormalized = :email AND u.id != :excludeId")
     boolean existsByEmailAndIdNot(@Param("email") String email,
                                   @Param("excludeId") Long excludeId);
 
-    boolean existsByEmail(String email);
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.emailNormalized = :email")
+    boolean existsByEmail(@Param("email") String email);
+
+    @Query("SELECT u FROM User u WHERE u.emailNormalized IN :emails")
+    List<User> findByEmailIn(@Param("emails") Collection<String> emails);
+
+    // read-only projections: rows go straight into responses without entering the persistence context
+    @Query("SELECT new org.example.userservice.dto.UserResponse(u.id, u.name, u.email, u.age, u.createdAt) "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT new org.example.userservice.dto.UserResponse(u.id, u.name, u.email, u.age, u.createdAt) "
+            + "FROM User u ORDER BY u.id")
+    List<UserResponse> findAllResponses();
+
+    // keyset walk over every user: pass the last id seen, starting below the smallest id
+    List<User> findByIdGreaterThanOrderById(Long id, Limit limit);
+
+    @Modifying
+    @Query("UPDATE User u SET u.deletedAt = :deletedAt WHERE u.id IN :ids AND u.deletedAt IS NULL")
+    int softDeleteAllByIdIn(@Param("ids") Collection<Long> ids,
+                            @Param("deletedAt") LocalDateTime deletedAt);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package org.example.userservice.repository;
+
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> findByEmail(String email);
+
+    Optional<String> softDeleteById(Long id);
+
+    int purgeSoftDeleted(LocalDateTime deletedBefore, int batchSize);
+
+    // createdFrom inclusive, createdTo exclusive; a null bound leaves that side open
+    List<UserResponse> findResponsesCreatedBetween(LocalDateTime createdFrom, LocalDateTime createdTo);
+}
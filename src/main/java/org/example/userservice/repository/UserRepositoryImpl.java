@@ -0,0 +1,138 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    // cached query results over users, such as existsByEmail, are invalidated through this space
+    private static final String[] USER_SPACES = {"users"};
+
+    private static final String FIND_BY_EMAIL = "SELECT u FROM User u WHERE u.emailNormalized = :email";
+
+    private static final String SOFT_DELETE_POSTGRESQL =
+            "UPDATE users SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL RETURNING email";
+
+    // H2 has no RETURNING clause; a data change delta table gives the same single statement
+    private static final String SOFT_DELETE_H2 =
+            "SELECT email FROM FINAL TABLE (UPDATE users SET deleted_at = :deletedAt WHERE id = :id AND deleted_at IS NULL)";
+
+    private static final String PURGE =
+            "DELETE FROM users WHERE id IN (SELECT id FROM users WHERE deleted_at < :deletedBefore "
+                    + "ORDER BY deleted_at LIMIT :batchSize)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // resolves through the natural-id and entity caches, so repeated lookups skip the database; a resolution cached
+    // before another instance changed the user's email is caught by the check on the loaded user, and the email may
+    // have passed to someone else since, so it is dropped and the email resolved again from the database
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByEmail(String email) {
+        String normalized = User.normalizeEmail(email);
+        Session session = entityManager.unwrap(Session.class);
+        Optional<User> user = session.bySimpleNaturalId(User.class).loadOptional(normalized);
+        if (user.isEmpty() || normalized.equals(user.get().getEmailNormalized())) {
+            return user;
+        }
+        evictNaturalId(entityManager.unwrap(SharedSessionContractImplementor.class), normalized);
+        return entityManager.createQuery(FIND_BY_EMAIL, User.class)
+                .setParameter("email", normalized)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<String> softDeleteById(Long id) {
+        List<String> emails = entityManager.createNativeQuery(isPostgreSQL() ? SOFT_DELETE_POSTGRESQL : SOFT_DELETE_H2)
+                .setParameter("deletedAt", LocalDateTime.now())
+                .setParameter("id", id)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(User.class)
+                .getResultList();
+        if (!emails.isEmpty()) {
+            // a RETURNING query runs as a select, so Hibernate would not invalidate the User caches on its own; only
+            // this user and its email are evicted, the way an entity delete would, rather than the whole regions
+            String emailNormalized = User.normalizeEmail(emails.get(0));
+            SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+            TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+            timestamps.preInvalidate(USER_SPACES, session);
+            session.getActionQueue().registerProcess((success, completed) -> {
+                completed.getFactory().getCache().evictEntityData(User.class, id);
+                evictNaturalId(completed, emailNormalized);
+                timestamps.invalidate(USER_SPACES, completed);
+            });
+        }
+        return emails.stream().findFirst();
+    }
+
+    @Override
+    public int purgeSoftDeleted(LocalDateTime deletedBefore, int batchSize) {
+        return entityManager.createNativeQuery(PURGE)
+                .setParameter("deletedBefore", deletedBefore)
+                .setParameter("batchSize", batchSize)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(User.class)
+                .executeUpdate();
+    }
+
+    // only the given bounds become predicates, so each one lets PostgreSQL prune created_at partitions
+    @Override
+    public List<UserResponse> findResponsesCreatedBetween(LocalDateTime createdFrom, LocalDateTime createdTo) {
+        List<String> conditions = new ArrayList<>();
+        if (createdFrom != null) {
+            conditions.add("u.createdAt >= :createdFrom");
+        }
+        if (createdTo != null) {
+            conditions.add("u.createdAt < :createdTo");
+        }
+        TypedQuery<UserResponse> query = entityManager.createQuery(
+                "SELECT new org.example.userservice.dto.UserResponse(u.id, u.name, u.email, u.age, u.createdAt) "
+                        + "FROM User u " + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions))
+                        + " ORDER BY u.id", UserResponse.class);
+        if (createdFrom != null) {
+            query.setParameter("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            query.setParameter("createdTo", createdTo);
+        }
+        return query.getResultList();
+    }
+
+    private static void evictNaturalId(SharedSessionContractImplementor session, String emailNormalized) {
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(User.class);
+        NaturalIdDataAccess naturalIds = persister.getNaturalIdCacheAccessStrategy();
+        if (naturalIds != null) {
+            naturalIds.evict(naturalIds.generateCacheKey(emailNormalized, persister, session));
+        }
+    }
+
+    private boolean isPostgreSQL() {
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        return dialect instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.userservice.service;
+
+import org.example.userservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class SoftDeletePurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftDeletePurger.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.soft-delete.enabled:false}")
+    private boolean softDeleteEnabled;
+
+    @Value("${app.soft-delete.retention:P1D}")
+    private Duration retention;
+
+    @Value("${app.soft-delete.purge-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.soft-delete.purge-max-batches:200}")
+    private int maxBatches;
+
+    @Autowired
+    public SoftDeletePurger(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.soft-delete.purge-cron:0 */10 1-5 * * *}")
+    public void purge() {
+        if (!softDeleteEnabled) {
+            return;
+        }
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(retention);
+        int purged = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer deleted = transactionTemplate.execute(status ->
+                    userRepository.purgeSoftDeleted(deletedBefore, batchSize));
+            purged += deleted == null ? 0 : deleted;
+            if (deleted == null || deleted < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            logger.info("Purged {} soft-deleted users deleted before {}", purged, deletedBefore);
+        }
+    }
+}
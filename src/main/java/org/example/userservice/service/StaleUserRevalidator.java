@@ -0,0 +1,91 @@
+package org.example.userservice.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.userservice.cache.StaleUserStore;
+import org.example.userservice.dto.StaleUserResponse;
+import org.example.userservice.exception.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+public class StaleUserRevalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleUserRevalidator.class);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final UserService userService;
+    private final StaleUserStore staleUserStore;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stale-user-revalidator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.stale.revalidate-batch-size:100}")
+    private int batchSize;
+
+    @Autowired
+    public StaleUserRevalidator(CircuitBreakerRegistry circuitBreakerRegistry,
+                                @Lazy UserService userService,
+                                StaleUserStore staleUserStore) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.userService = userService;
+        this.staleUserStore = staleUserStore;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        circuitBreakerRegistry.circuitBreaker("userService").getEventPublisher()
+                .onStateTransition(this::onStateTransition);
+    }
+
+    private void onStateTransition(CircuitBreakerOnStateTransitionEvent event) {
+        CircuitBreaker.State toState = event.getStateTransition().getToState();
+        if (toState == CircuitBreaker.State.HALF_OPEN || toState == CircuitBreaker.State.CLOSED) {
+            executor.execute(this::revalidate);
+        }
+    }
+
+    // re-reads ids that were served stale; the reads go through the breaker, so they double as its trial calls
+    void revalidate() {
+        int refreshed = 0;
+        List<Long> ids;
+        while (!(ids = staleUserStore.drainPendingRevalidation(batchSize)).isEmpty()) {
+            for (Long id : ids) {
+                try {
+                    if (userService.getUserById(id) instanceof StaleUserResponse) {
+                        // still failing; these ids are marked again the next time they are served stale
+                        logger.debug("Stopped revalidation after {} users, database still unavailable", refreshed);
+                        return;
+                    }
+                    refreshed++;
+                } catch (ResourceNotFoundException ex) {
+                    staleUserStore.remove(id);
+                } catch (RuntimeException ex) {
+                    logger.warn("Revalidation of user {} failed: {}", id, ex.getMessage());
+                    return;
+                }
+            }
+        }
+        if (refreshed > 0) {
+            logger.info("Revalidated {} users served from the stale store", refreshed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.userservice.service;
+
+import org.example.userservice.cache.StaleUserStore;
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.cache.UserSnapshotStore;
+import org.example.userservice.dto.BulkOperation;
+import org.example.userservice.dto.BulkResult;
+import org.example.userservice.dto.UserRequest;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.event.UserChangeFeed;
+import org.example.userservice.event.UserEvent;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.sharding.UserShards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class UserBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBulkService.class);
+
+    private final UserRepository userRepository;
+    private final UserEventPublisher userEventPublisher;
+    private final UserSnapshotStore userSnapshotStore;
+    private final UserChangeFeed userChangeFeed;
+    private final UserResponseCache userResponseCache;
+    private final StaleUserStore staleUserStore;
+    private final UserShards userShards;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.soft-delete.enabled:false}")
+    private boolean softDeleteEnabled;
+
+    @Autowired
+    public UserBulkService(UserRepository userRepository,
+                           UserEventPublisher userEventPublisher,
+                           UserSnapshotStore userSnapshotStore,
+                           UserChangeFeed userChangeFeed,
+                           UserResponseCache userResponseCache,
+                           StaleUserStore staleUserStore,
+                           UserShards userShards,
+                           PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.userEventPublisher = userEventPublisher;
+        this.userSnapshotStore = userSnapshotStore;
+        this.userChangeFeed = userChangeFeed;
+        this.userResponseCache = userResponseCache;
+        this.staleUserStore = staleUserStore;
+        this.userShards = userShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<BulkResult> execute(List<BulkOperation> operations) {
+        logger.info("Executing {} bulk operations in chunks of {}", operations.size(), chunkSize);
+        BulkResult[] results = new BulkResult[operations.size()];
+        Set<Long> seenIds = new HashSet<>();
+        // a chunk's transaction can only reach one shard, so pending operations are grouped by shard
+        Map<Integer, List<Integer>> pending = new TreeMap<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            BulkOperation operation = operations.get(i);
+            if (operation.getOp() == BulkOperation.Type.UPDATE && operation.getUser() == null) {
+                results[i] = result(i, operation, BulkResult.Status.INVALID, "Update requires user data");
+            } else if (!seenIds.add(operation.getId())) {
+                results[i] = result(i, operation, BulkResult.Status.INVALID, "Duplicate id in request: " + operation.getId());
+            } else {
+                pending.computeIfAbsent(userShards.shardOfId(operation.getId()), shard -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<UserEvent> events = new ArrayList<>();
+        for (List<Integer> shardPending : pending.values()) {
+            for (int from = 0; from < shardPending.size(); from += chunkSize) {
+                List<Integer> chunk = shardPending.subList(from, Math.min(from + chunkSize, shardPending.size()));
+                try {
+                    events.addAll(transactionTemplate.execute(status -> executeChunk(operations, chunk, results)));
+                } catch (RuntimeException ex) {
+                    logger.error("Bulk chunk of {} operations rolled back: {}", chunk.size(), ex.getMessage());
+                    for (int index : chunk) {
+                        results[index] = result(index, operations.get(index), BulkResult.Status.FAILED,
+                                "Chunk rolled back: " + ex.getMessage());
+                    }
+                }
+            }
+        }
+
+        // events of every committed chunk go out together once the whole request is done
+        userEventPublisher.publishUserEvents(events);
+        return Arrays.asList(results);
+    }
+
+    private List<UserEvent> executeChunk(List<BulkOperation> operations, List<Integer> chunk, BulkResult[] results) {
+        List<Long> ids = chunk.stream().map(index -> operations.get(index).getId()).collect(Collectors.toList());
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Integer> deletes = new ArrayList<>();
+        List<Integer> updates = new ArrayList<>();
+        Set<String> changedEmails = new HashSet<>();
+        for (int index : chunk) {
+            BulkOperation operation = operations.get(index);
+            User user = users.get(operation.getId());
+            if (user == null) {
+                results[index] = result(index, operation, BulkResult.Status.NOT_FOUND,
+                        "User not found with id: " + operation.getId());
+            } else if (operation.getOp() == BulkOperation.Type.DELETE) {
+                deletes.add(index);
+            } else if (user.getEmailNormalized().equals(User.normalizeEmail(operation.getUser().getEmail()))) {
+                updates.add(index);
+            } else if (userShards.shardOfEmail(operation.getUser().getEmail()) != userShards.shardOfId(user.getId())) {
+                // only a changed email can point at another shard; the chunk's transaction cannot reach it
+                results[index] = result(index, operation, BulkResult.Status.INVALID,
+                        "Email " + operation.getUser().getEmail() + " belongs to another shard than user " + user.getId());
+            } else {
+                updates.add(index);
+                changedEmails.add(User.normalizeEmail(operation.getUser().getEmail()));
+            }
+        }
+
+        // one query for every email this chunk wants to take over
+        Map<String, Long> emailOwners = new HashMap<>();
+        if (!changedEmails.isEmpty()) {
+            for (User owner : userRepository.findByEmailIn(changedEmails)) {
+                emailOwners.put(owner.getEmailNormalized(), owner.getId());
+            }
+        }
+
+        List<UserEvent> events = new ArrayList<>();
+        Set<Long> deletedIds = deletes.stream().map(index -> operations.get(index).getId()).collect(Collectors.toSet());
+        if (!deletedIds.isEmpty()) {
+            if (softDeleteEnabled) {
+                userRepository.softDeleteAllByIdIn(deletedIds, LocalDateTime.now());
+            } else {
+                userRepository.deleteAllByIdInBatch(deletedIds);
+            }
+            for (int index : deletes) {
+                BulkOperation operation = operations.get(index);
+                User user = users.get(operation.getId());
+                userSnapshotStore.remove(user.getId());
+                staleUserStore.remove(user.getId());
+                userResponseCache.invalidate(user.getId());
+                UserEvent event = new UserEvent("DELETED", user.getEmail(), user.getId());
+                events.add(event);
+                userChangeFeed.publishAfterCommit(event);
+                results[index] = result(index, operation, BulkResult.Status.DELETED, null);
+            }
+        }
+
+        // managed entities are flushed together at commit as JDBC-batched UPDATEs
+        for (int index : updates) {
+            BulkOperation operation = operations.get(index);
+            UserRequest request = operation.getUser();
+            User user = users.get(operation.getId());
+            // lookups go by the normalized email; the user keeps the spelling from the request
+            String email = User.normalizeEmail(request.getEmail());
+            boolean emailChanged = !user.getEmailNormalized().equals(email);
+            if (emailChanged) {
+                Long owner = emailOwners.get(email);
+                boolean ownerRemoved = owner != null && !softDeleteEnabled && deletedIds.contains(owner);
+                if (owner != null && !owner.equals(user.getId()) && !ownerRemoved) {
+                    results[index] = result(index, operation, BulkResult.Status.DUPLICATE_EMAIL,
+                            "Another user with email " + request.getEmail() + " already exists");
+                    continue;
+                }
+                emailOwners.put(email, user.getId());
+            }
+
+            user.setName(request.getName());
+            user.setEmail(request.getEmail());
+            user.setAge(request.getAge());
+            userSnapshotStore.put(user);
+            // the invalidator skips this instance's own events, so the stale copy is replaced here
+            staleUserStore.putAfterCommit(new UserResponse(user.getId(), user.getName(), user.getEmail(),
+                    user.getAge(), user.getCreatedAt()));
+            userResponseCache.invalidate(user.getId());
+            UserEvent event = new UserEvent("UPDATED", user.getEmail(), user.getId());
+            events.add(event);
+            userChangeFeed.publishAfterCommit(event);
+            results[index] = result(index, operation, BulkResult.Status.UPDATED, null);
+        }
+
+        return events;
+    }
+
+    private BulkResult result(int index, BulkOperation operation, BulkResult.Status status, String message) {
+        return new BulkResult(index, operation.getId(), operation.getOp(), status, message);
+    }
+}
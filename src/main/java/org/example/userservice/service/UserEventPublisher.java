@@ -1,15 +1,28 @@
 package org.example.userservice.service;
 
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.example.userservice.event.UserEvent;
+import org.example.userservice.event.UserEventSpillQueue;
+import org.example.userservice.timing.RequestTiming;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class UserEventPublisher {
@@ -19,29 +32,220 @@ public class UserEventPublisher {
     @Value("${app.kafka.topic.user-events}")
     private String userEventsTopic;
 
+    @Value("${app.kafka.spill.latency-threshold-ms:1000}")
+    private long latencyThresholdMs;
+
+    @Value("${app.kafka.spill.buffer-threshold:0.8}")
+    private double bufferThreshold;
+
+    @Value("${app.kafka.spill.drain-batch-size:500}")
+    private int drainBatchSize;
+
+    @Value("${app.kafka.spill.drain-timeout-ms:10000}")
+    private long drainTimeoutMs;
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final UserEventSpillQueue spillQueue;
+
+    // guarded by the spill queue's monitor for writes, so a drain that finds the queue empty cannot clear it while an
+    // event is being appended
+    private volatile boolean spilling;
+    private volatile Metric bufferAvailableBytes;
+    private volatile Metric bufferTotalBytes;
 
     @Autowired
-    public UserEventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
+    public UserEventPublisher(KafkaTemplate<String, Object> kafkaTemplate, UserEventSpillQueue spillQueue) {
         this.kafkaTemplate = kafkaTemplate;
+        this.spillQueue = spillQueue;
     }
 
     public void publishUserEvent(UserEvent userEvent) {
+        RequestTiming.enter(RequestTiming.Phase.KAFKA);
+        try {
+            send(userEvent);
+        } finally {
+            RequestTiming.exit(RequestTiming.Phase.KAFKA);
+        }
+    }
+
+    private void send(UserEvent userEvent) {
+        if (spillQueue.isEnabled() && spillIfBehind(userEvent)) {
+            return;
+        }
+        long started = System.nanoTime();
         try {
             CompletableFuture<SendResult<String, Object>> future =
                     kafkaTemplate.send(userEventsTopic, userEvent.getEmail(), userEvent);
 
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
-                    logger.info("Sent user event: {} with offset: {}",
-                            userEvent, result.getRecordMetadata().offset());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Sent {} event for user {} with offset: {}",
+                                userEvent.getEventType(), userEvent.getUserId(), result.getRecordMetadata().offset());
+                    }
+                    long latencyMs = (System.nanoTime() - started) / 1_000_000;
+                    if (latencyMs > latencyThresholdMs) {
+                        startSpilling("acknowledgement took " + latencyMs + " ms");
+                    }
                 } else {
-                    logger.error("Unable to send user event: {} due to: {}",
-                            userEvent, ex.getMessage());
+                    logger.error("Unable to send {} event for user {} due to: {}",
+                            userEvent.getEventType(), userEvent.getUserId(), ex.getMessage());
+                    if (spillQueue.isEnabled()) {
+                        // events sent after this one may already be on the topic, so it is re-published out of order
+                        startSpilling(ex.getMessage());
+                        spill(userEvent);
+                    }
                 }
             });
         } catch (Exception ex) {
             logger.error("Error publishing user event: {}", ex.getMessage());
+            if (spillQueue.isEnabled()) {
+                startSpilling(ex.getMessage());
+                spill(userEvent);
+            }
+        }
+    }
+
+    public void publishUserEvents(List<UserEvent> userEvents) {
+        // sent back to back so the producer packs them into as few record batches as possible
+        for (UserEvent userEvent : userEvents) {
+            publishUserEvent(userEvent);
+        }
+        if (!userEvents.isEmpty()) {
+            logger.debug("Queued {} user events", userEvents.size());
+        }
+    }
+
+    public void publishUserEventAfterCommit(UserEvent userEvent) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishUserEvent(userEvent);
+                }
+            });
+        } else {
+            publishUserEvent(userEvent);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.spill.drain-interval-ms:1000}")
+    public void drainSpilled() {
+        if (!spillQueue.isEnabled()) {
+            return;
+        }
+        // the factory may have replaced the producer since its buffer gauges were looked up
+        bufferAvailableBytes = null;
+        if (isProducerBufferSaturated()) {
+            startSpilling("producer buffer above " + bufferThreshold);
+            return;
+        }
+        List<UserEvent> batch = spillQueue.peek(drainBatchSize);
+        while (!batch.isEmpty()) {
+            int sent = sendAndWait(batch);
+            spillQueue.acknowledge(sent);
+            if (sent < batch.size()) {
+                spillQueue.flush();
+                return;
+            }
+            batch = spillQueue.peek(drainBatchSize);
+        }
+        spillQueue.flush();
+        synchronized (spillQueue) {
+            // a request may have appended since the last peek; it is drained next time
+            if (spilling && spillQueue.getBacklog() == 0) {
+                spilling = false;
+                logger.info("Kafka caught up, spill queue drained");
+            }
+        }
+    }
+
+    public boolean isSpilling() {
+        return spilling;
+    }
+
+    private boolean spillIfBehind(UserEvent userEvent) {
+        // a nearly full buffer would hold this request for up to max.block.ms, so the event goes to disk instead
+        if (!spilling && isProducerBufferSaturated()) {
+            startSpilling("producer buffer above " + bufferThreshold);
+        }
+        synchronized (spillQueue) {
+            // once anything is spilled, new events queue behind it so the topic keeps their order
+            if (!spilling && spillQueue.getBacklog() == 0) {
+                return false;
+            }
+            spill(userEvent);
+            return true;
+        }
+    }
+
+    private void spill(UserEvent userEvent) {
+        if (!spillQueue.append(userEvent)) {
+            logger.error("Spill queue is full, dropping {} event for user {}",
+                    userEvent.getEventType(), userEvent.getUserId());
+        }
+    }
+
+    private void startSpilling(String reason) {
+        if (!spillQueue.isEnabled()) {
+            return;
+        }
+        synchronized (spillQueue) {
+            if (!spilling) {
+                spilling = true;
+                logger.warn("Spilling user events to disk: {}", reason);
+            }
+        }
+    }
+
+    // sends in order and returns how many events from the start of the batch were acknowledged
+    private int sendAndWait(List<UserEvent> batch) {
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(batch.size());
+        try {
+            for (UserEvent userEvent : batch) {
+                futures.add(kafkaTemplate.send(userEventsTopic, userEvent.getEmail(), userEvent));
+            }
+        } catch (Exception ex) {
+            logger.warn("Spill drain interrupted while sending: {}", ex.getMessage());
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return i;
+            } catch (ExecutionException | TimeoutException ex) {
+                logger.warn("Spill drain stopped after {} events: {}", i, ex.getMessage());
+                return i;
+            }
+        }
+        return futures.size();
+    }
+
+    // checked on every send, so the two buffer gauges are looked up once and then only read
+    private boolean isProducerBufferSaturated() {
+        Metric available = bufferAvailableBytes;
+        Metric total = bufferTotalBytes;
+        if (available == null || total == null) {
+            for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+                if (!"producer-metrics".equals(metric.getKey().group())) {
+                    continue;
+                }
+                if ("buffer-available-bytes".equals(metric.getKey().name())) {
+                    available = metric.getValue();
+                } else if ("buffer-total-bytes".equals(metric.getKey().name())) {
+                    total = metric.getValue();
+                }
+            }
+            if (available == null || total == null) {
+                return false;
+            }
+            bufferAvailableBytes = available;
+            bufferTotalBytes = total;
         }
+        double totalBytes = ((Number) total.metricValue()).doubleValue();
+        double availableBytes = ((Number) available.metricValue()).doubleValue();
+        return totalBytes > 0 && availableBytes >= 0 && (totalBytes - availableBytes) / totalBytes > bufferThreshold;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package org.example.userservice.service;
+
+import org.example.userservice.dto.ImportJobResponse;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UserImportJob {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final Path rejectedRowsFile;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsStaged = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private volatile long rowsInserted;
+    private volatile String loader;
+    private volatile State state = State.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile long finishedNanos;
+    private volatile String error;
+
+    UserImportJob(String id, Path rejectedRowsFile) {
+        this.id = id;
+        this.rejectedRowsFile = rejectedRowsFile;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Path getRejectedRowsFile() {
+        return rejectedRowsFile;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    void setLoader(String loader) {
+        this.loader = loader;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void rowStaged() {
+        rowsStaged.incrementAndGet();
+    }
+
+    void rowRejected() {
+        rowsRejected.incrementAndGet();
+    }
+
+    void complete(long inserted) {
+        this.rowsInserted = inserted;
+        finish(State.COMPLETED, null);
+    }
+
+    void fail(String error) {
+        finish(State.FAILED, error);
+    }
+
+    private void finish(State state, String error) {
+        this.error = error;
+        this.finishedNanos = System.nanoTime();
+        this.finishedAt = LocalDateTime.now();
+        this.state = state;
+    }
+
+    public ImportJobResponse toResponse() {
+        long end = state == State.RUNNING ? System.nanoTime() : finishedNanos;
+        long elapsedNanos = Math.max(1, end - startedNanos);
+        long rowsPerSecond = rowsRead.get() * 1_000_000_000L / elapsedNanos;
+        return new ImportJobResponse(id, state.name(), loader, startedAt, finishedAt,
+                rowsRead.get(), rowsStaged.get(), rowsInserted, rowsRejected.get(), rowsPerSecond,
+                rowsRejected.get() > 0 ? rejectedRowsFile.toString() : null, error);
+    }
+}
@@ -0,0 +1,441 @@
+package org.example.userservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.userservice.cache.UserSnapshotStore;
+import org.example.userservice.dto.ImportJobResponse;
+import org.example.userservice.dto.UserRequest;
+import org.example.userservice.model.User;
+import org.example.userservice.sharding.UserShards;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    // rows are staged with the email as written and its User#normalizeEmail form, which all matching uses;
+    // soft-deleted users have given up their email, as in createUser and the partial unique index
+    private static final String CONFLICTS =
+            "SELECT s.line_no, s.email, "
+                    + "CASE WHEN EXISTS (SELECT 1 FROM users u "
+                    + "WHERE u.email_normalized = s.email_normalized AND u.deleted_at IS NULL) "
+                    + "THEN 'email already exists' ELSE 'duplicate email in file' END "
+                    + "FROM %1$s s "
+                    + "WHERE EXISTS (SELECT 1 FROM users u "
+                    + "WHERE u.email_normalized = s.email_normalized AND u.deleted_at IS NULL) "
+                    + "OR EXISTS (SELECT 1 FROM %1$s d "
+                    + "WHERE d.email_normalized = s.email_normalized AND d.line_no < s.line_no) "
+                    + "ORDER BY s.line_no";
+
+    private static final String MERGE =
+            "INSERT INTO users (name, email, email_normalized, age, created_at) "
+                    + "SELECT s.name, s.email, s.email_normalized, s.age, CURRENT_TIMESTAMP FROM %1$s s "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM users u "
+                    + "WHERE u.email_normalized = s.email_normalized AND u.deleted_at IS NULL) "
+                    + "AND NOT EXISTS (SELECT 1 FROM %1$s d "
+                    + "WHERE d.email_normalized = s.email_normalized AND d.line_no < s.line_no)";
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Validator validator;
+    private final UserSnapshotStore userSnapshotStore;
+    private final UserShards userShards;
+    private final Path directory;
+    private final int batchSize;
+    private final int maxJobs;
+    private final Map<String, UserImportJob> jobs = new LinkedHashMap<>();
+
+    @Autowired
+    public UserImportService(DataSource dataSource,
+                             EntityManagerFactory entityManagerFactory,
+                             Validator validator,
+                             UserSnapshotStore userSnapshotStore,
+                             UserShards userShards,
+                             @Value("${app.import.directory:${java.io.tmpdir}/user-service/imports}") String directory,
+                             @Value("${app.import.batch-size:1000}") int batchSize,
+                             @Value("${app.import.max-jobs:50}") int maxJobs) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.validator = validator;
+        this.userSnapshotStore = userSnapshotStore;
+        this.userShards = userShards;
+        this.directory = Paths.get(directory);
+        this.batchSize = batchSize;
+        this.maxJobs = maxJobs;
+    }
+
+    public UserImportJob importCsv(InputStream csv) {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        UserImportJob job = new UserImportJob(id, directory.resolve(id + "-rejected.csv"));
+        register(job);
+        if (userShards.isEnabled()) {
+            // staging and merging happen on one connection, which cannot spread rows over their owning shards
+            job.fail("CSV import is not available while sharding is enabled");
+            return job;
+        }
+        logger.info("Starting user import {}", id);
+
+        String staging = "user_import_" + id;
+        try (Connection connection = dataSource.getConnection();
+             RejectedRowWriter rejected = new RejectedRowWriter(job.getRejectedRowsFile())) {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            job.setLoader(postgres ? "copy" : "batch");
+            createStagingTable(connection, staging, postgres);
+            try {
+                try (StagingSink sink = postgres
+                        ? new CopySink(connection, staging)
+                        : new BatchSink(connection, staging, batchSize)) {
+                    stage(csv, job, sink, rejected);
+                    sink.finish();
+                }
+                job.complete(merge(connection, staging, postgres, job, rejected));
+            } finally {
+                dropStagingTable(connection, staging);
+            }
+        } catch (IOException | SQLException | RuntimeException ex) {
+            logger.error("User import {} failed: {}", id, ex.getMessage());
+            job.fail(ex.getMessage());
+            return job;
+        }
+
+        logger.info("User import {} finished: {} read, {} inserted, {} rejected",
+                id, job.getRowsRead(), job.getRowsInserted(), job.getRowsRejected());
+        if (job.getRowsInserted() > 0) {
+            // rows were inserted behind Hibernate's back, so cached existsByEmail answers are no longer valid
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+            userSnapshotStore.load();
+        }
+        return job;
+    }
+
+    public Optional<UserImportJob> getJob(String id) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(id));
+        }
+    }
+
+    public List<ImportJobResponse> getJobs() {
+        synchronized (jobs) {
+            return jobs.values().stream().map(UserImportJob::toResponse).collect(Collectors.toList());
+        }
+    }
+
+    private void register(UserImportJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<UserImportJob> oldest = jobs.values().iterator();
+            while (jobs.size() > maxJobs && oldest.hasNext()) {
+                if (oldest.next().getState() != UserImportJob.State.RUNNING) {
+                    oldest.remove();
+                }
+            }
+        }
+    }
+
+    private void stage(InputStream csv, UserImportJob job, StagingSink sink, RejectedRowWriter rejected)
+            throws IOException, SQLException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty");
+        }
+        List<String> columns = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        int nameColumn = columns.indexOf("name");
+        int emailColumn = columns.indexOf("email");
+        int ageColumn = columns.indexOf("age");
+        if (nameColumn < 0 || emailColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain name and email columns, got: " + header);
+        }
+
+        long lineNo = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            job.rowRead();
+            List<String> fields = parseLine(line);
+            if (fields.size() != columns.size()) {
+                rejected.write(lineNo, "expected " + columns.size() + " columns but found " + fields.size(), line);
+                job.rowRejected();
+                continue;
+            }
+
+            String age = ageColumn < 0 ? "" : fields.get(ageColumn).trim();
+            UserRequest row;
+            try {
+                row = new UserRequest(fields.get(nameColumn).trim(), fields.get(emailColumn).trim(),
+                        age.isEmpty() ? null : Integer.valueOf(age));
+            } catch (NumberFormatException ex) {
+                rejected.write(lineNo, "age: must be a number", line);
+                job.rowRejected();
+                continue;
+            }
+
+            Set<ConstraintViolation<UserRequest>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                String reason = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                rejected.write(lineNo, reason, line);
+                job.rowRejected();
+                continue;
+            }
+
+            sink.add(lineNo, row);
+            job.rowStaged();
+        }
+    }
+
+    private long merge(Connection connection, String staging, boolean postgres, UserImportJob job,
+                       RejectedRowWriter rejected) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX " + staging + "_email ON " + staging + " (email_normalized, line_no)");
+            if (postgres) {
+                statement.execute("ANALYZE " + staging);
+            }
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(batchSize);
+                try (ResultSet conflicts = statement.executeQuery(String.format(CONFLICTS, staging))) {
+                    while (conflicts.next()) {
+                        rejected.write(conflicts.getLong(1), conflicts.getString(3), conflicts.getString(2));
+                        job.rowRejected();
+                    }
+                }
+            }
+            long inserted;
+            try (Statement statement = connection.createStatement()) {
+                // rows that lose a race with a concurrent insert are skipped rather than failing the import
+                inserted = statement.executeUpdate(String.format(MERGE, staging) + (postgres ? " ON CONFLICT DO NOTHING" : ""));
+            }
+            connection.commit();
+            return inserted;
+        } catch (SQLException | IOException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void createStagingTable(Connection connection, String staging, boolean postgres) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // staging rows are disposable, so PostgreSQL can skip the WAL for them
+            statement.execute("CREATE " + (postgres ? "UNLOGGED " : "") + "TABLE " + staging
+                    + " (line_no BIGINT NOT NULL, name VARCHAR(100) NOT NULL, email VARCHAR(150) NOT NULL, "
+                    + "email_normalized VARCHAR(150) NOT NULL, age INTEGER)");
+        }
+    }
+
+    private void dropStagingTable(Connection connection, String staging) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + staging);
+        } catch (SQLException ex) {
+            logger.warn("Could not drop import staging table {}: {}", staging, ex.getMessage());
+        }
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private interface StagingSink extends AutoCloseable {
+
+        void add(long lineNo, UserRequest row) throws SQLException;
+
+        void finish() throws SQLException;
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    private static final class CopySink implements StagingSink {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS);
+
+        CopySink(Connection connection, String staging) throws SQLException {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + staging + " (line_no, name, email, email_normalized, age) FROM STDIN WITH (FORMAT csv)");
+        }
+
+        @Override
+        public void add(long lineNo, UserRequest row) throws SQLException {
+            buffer.append(lineNo).append(',')
+                    .append(quote(row.getName())).append(',')
+                    .append(quote(row.getEmail())).append(',')
+                    .append(quote(User.normalizeEmail(row.getEmail()))).append(',');
+            if (row.getAge() != null) {
+                buffer.append(row.getAge());
+            }
+            buffer.append('\n');
+            if (buffer.length() >= COPY_BUFFER_CHARS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (buffer.length() > 0) {
+                byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+                buffer.setLength(0);
+            }
+        }
+    }
+
+    private static final class BatchSink implements StagingSink {
+
+        private final PreparedStatement insert;
+        private final int batchSize;
+        private int pending;
+
+        BatchSink(Connection connection, String staging, int batchSize) throws SQLException {
+            this.insert = connection.prepareStatement(
+                    "INSERT INTO " + staging + " (line_no, name, email, email_normalized, age) VALUES (?, ?, ?, ?, ?)");
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void add(long lineNo, UserRequest row) throws SQLException {
+            insert.setLong(1, lineNo);
+            insert.setString(2, row.getName());
+            insert.setString(3, row.getEmail());
+            insert.setString(4, User.normalizeEmail(row.getEmail()));
+            if (row.getAge() != null) {
+                insert.setInt(5, row.getAge());
+            } else {
+                insert.setNull(5, Types.INTEGER);
+            }
+            insert.addBatch();
+            if (++pending >= batchSize) {
+                finish();
+            }
+        }
+
+        @Override
+        public void finish() throws SQLException {
+            if (pending > 0) {
+                insert.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            insert.close();
+        }
+    }
+
+    private static final class RejectedRowWriter implements AutoCloseable {
+
+        private final Path file;
+        private BufferedWriter writer;
+
+        RejectedRowWriter(Path file) {
+            this.file = file;
+        }
+
+        void write(long lineNo, String reason, String value) throws IOException {
+            if (writer == null) {
+                Files.createDirectories(file.getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write("line,reason,value\n");
+            }
+            writer.write(lineNo + "," + quote(reason) + "," + quote(value) + "\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
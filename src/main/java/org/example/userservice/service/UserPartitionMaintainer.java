@@ -0,0 +1,145 @@
+package org.example.userservice.service;
+
+import org.example.userservice.sharding.ShardRoutingDataSource;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Keeps monthly created_at partitions of users ready ahead of time on PostgreSQL, so inserts never fall into
+// the default partition; databases where users is not partitioned (H2, Hibernate-created schemas) are skipped.
+@Component
+public class UserPartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPartitionMaintainer.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final String IS_PARTITIONED =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid "
+                    + "WHERE c.oid = to_regclass('users'))";
+
+    private static final String PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = to_regclass('users')";
+
+    private final DataSource dataSource;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final String lockTimeout;
+
+    @Autowired
+    public UserPartitionMaintainer(DataSource dataSource,
+                                   ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                   @Value("${app.partitions.enabled:true}") boolean enabled,
+                                   @Value("${app.partitions.months-ahead:3}") int monthsAhead,
+                                   @Value("${app.partitions.lock-timeout:5s}") String lockTimeout) {
+        this.dataSource = dataSource;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.cron:0 15 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!enabled) {
+            return;
+        }
+        for (DataSource target : targets()) {
+            try (Connection connection = target.getConnection()) {
+                if (isPartitioned(connection)) {
+                    createUpcomingPartitions(connection, YearMonth.now());
+                }
+            } catch (SQLException ex) {
+                logger.error("Could not maintain users partitions: {}", ex.getMessage());
+            }
+        }
+    }
+
+    // returns the partitions it created; a month that fails (lock timeout, rows already in the default partition)
+    // is logged and retried on the next run
+    List<String> createUpcomingPartitions(Connection connection, YearMonth current) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet partitions = statement.executeQuery(PARTITIONS)) {
+            while (partitions.next()) {
+                existing.add(partitions.getString(1));
+            }
+        }
+
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = partitionName(month);
+            if (existing.contains(partition)) {
+                continue;
+            }
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // attaching a ready table only takes SHARE UPDATE EXCLUSIVE on users, so reads and writes go on;
+                // the timeout keeps a long-running transaction from queueing traffic behind the maintainer
+                statement.execute("SET LOCAL lock_timeout = '" + lockTimeout + "'");
+                statement.execute("CREATE TABLE " + partition + " (LIKE users INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                statement.execute("ALTER TABLE users ATTACH PARTITION " + partition + " FOR VALUES FROM ('"
+                        + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                connection.commit();
+                created.add(partition);
+                logger.info("Created users partition {}", partition);
+            } catch (SQLException ex) {
+                connection.rollback();
+                logger.warn("Could not create users partition {}: {}", partition, ex.getMessage());
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        return created;
+    }
+
+    static String partitionName(YearMonth month) {
+        return "users_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private List<DataSource> targets() {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        if (shards == null) {
+            return List.of(dataSource);
+        }
+        List<DataSource> targets = new ArrayList<>();
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            targets.add(shards.getShard(shard));
+        }
+        return targets;
+    }
+
+    private static boolean isPartitioned(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(IS_PARTITIONED)) {
+            return result.next() && result.getBoolean(1);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package org.example.userservice.service;
 import org.example.userservice.dto.UserRequest;
 import org.example.userservice.dto.UserResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface UserService {
     UserResponse createUser(UserRequest userRequest);
     UserResponse getUserById(Long id);
     List<UserResponse> getAllUsers();
+    List<UserResponse> getUsersAfter(long afterId, int limit);
+    List<UserResponse> getUsersCreatedBetween(LocalDateTime createdFrom, LocalDateTime createdTo);
     UserResponse updateUser(Long id, UserRequest userRequest);
     void deleteUser(Long id);
     UserResponse getUserByEmail(String email);
@@ -1,21 +1,32 @@
 package org.example.userservice.service;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.example.userservice.cache.StaleUserStore;
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.cache.UserSnapshotStore;
+import org.example.userservice.dto.StaleUserResponse;
 import org.example.userservice.dto.UserRequest;
 import org.example.userservice.dto.UserResponse;
+import org.example.userservice.event.UserChangeFeed;
 import org.example.userservice.event.UserEvent;
 import org.example.userservice.exception.DuplicateEmailException;
+import org.example.userservice.exception.EmailShardMismatchException;
 import org.example.userservice.exception.ResourceNotFoundException;
 import org.example.userservice.model.User;
 import org.example.userservice.repository.UserRepository;
+import org.example.userservice.sharding.UserShards;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,14 +38,32 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserEventPublisher userEventPublisher;
     private final CircuitBreakerFactory circuitBreakerFactory;
+    private final UserSnapshotStore userSnapshotStore;
+    private final UserChangeFeed userChangeFeed;
+    private final StaleUserStore staleUserStore;
+    private final UserResponseCache userResponseCache;
+    private final UserShards userShards;
+
+    @Value("${app.soft-delete.enabled:false}")
+    private boolean softDeleteEnabled;
 
     @Autowired
     public UserServiceImpl(UserRepository userRepository,
                            UserEventPublisher userEventPublisher,
-                           CircuitBreakerFactory circuitBreakerFactory) {
+                           CircuitBreakerFactory circuitBreakerFactory,
+                           UserSnapshotStore userSnapshotStore,
+                           UserChangeFeed userChangeFeed,
+                           StaleUserStore staleUserStore,
+                           UserResponseCache userResponseCache,
+                           UserShards userShards) {
         this.userRepository = userRepository;
         this.userEventPublisher = userEventPublisher;
         this.circuitBreakerFactory = circuitBreakerFactory;
+        this.userSnapshotStore = userSnapshotStore;
+        this.userChangeFeed = userChangeFeed;
+        this.staleUserStore = staleUserStore;
+        this.userResponseCache = userResponseCache;
+        this.userShards = userShards;
     }
 
     @Override
@@ -50,12 +79,17 @@ public class UserServiceImpl implements UserService {
         user.setAge(userRequest.getAge());
 
         User savedUser = userRepository.save(user);
+        userSnapshotStore.put(savedUser);
 
         UserEvent userEvent = new UserEvent("CREATED", savedUser.getEmail(), savedUser.getId());
-        userEventPublisher.publishUserEvent(userEvent);
+        // other instances reload the user when this reaches them, so it must not go out before the row is visible
+        userEventPublisher.publishUserEventAfterCommit(userEvent);
+        userChangeFeed.publishAfterCommit(userEvent);
 
         logger.info("User created successfully with ID: {}", savedUser.getId());
-        return mapToUserResponse(savedUser);
+        UserResponse response = mapToUserResponse(savedUser);
+        staleUserStore.putAfterCommit(response);
+        return response;
     }
 
     public UserResponse createUserFallback(UserRequest userRequest, Throwable throwable) {
@@ -67,12 +101,32 @@ public class UserServiceImpl implements UserService {
     @Transactional(readOnly = true)
     @CircuitBreaker(name = "userService", fallbackMethod = "getUserByIdFallback")
     public UserResponse getUserById(Long id) {
-        logger.info("Fetching user by ID: {}", id);
+        logger.debug("Fetching user by ID: {}", id);
+        if (userSnapshotStore.isReady()) {
+            Optional<UserResponse> snapshot = userSnapshotStore.findById(id);
+            if (snapshot.isPresent()) {
+                staleUserStore.put(snapshot.get());
+                return snapshot.get();
+            }
+        }
+        long mark = userSnapshotStore.readMark();
         User user = findUserById(id);
-        return mapToUserResponse(user);
+        userSnapshotStore.fill(user, mark);
+        UserResponse response = mapToUserResponse(user);
+        staleUserStore.put(response);
+        return response;
     }
 
     public UserResponse getUserByIdFallback(Long id, Throwable throwable) {
+        if (throwable instanceof ResourceNotFoundException notFound) {
+            throw notFound;
+        }
+        Optional<StaleUserResponse> stale = staleUserStore.findById(id);
+        if (stale.isPresent()) {
+            logger.warn("Serving user {} from stale store ({} s old) due to: {}",
+                    id, stale.get().getAgeSeconds(), throwable.getMessage());
+            return stale.get();
+        }
         logger.error("Fallback method called for getUserById due to: {}", throwable.getMessage());
         throw new ResourceNotFoundException("User service is temporarily unavailable");
     }
@@ -81,11 +135,11 @@ public class UserServiceImpl implements UserService {
     @Transactional(readOnly = true)
     @CircuitBreaker(name = "userService", fallbackMethod = "getAllUsersFallback")
     public List<UserResponse> getAllUsers() {
-        logger.info("Fetching all users");
-        return userRepository.findAll()
-                .stream()
-                .map(this::mapToUserResponse)
-                .collect(Collectors.toList());
+        logger.debug("Fetching all users");
+        if (userSnapshotStore.isReady()) {
+            return userSnapshotStore.findAll();
+        }
+        return userRepository.findAllResponses();
     }
 
     public List<UserResponse> getAllUsersFallback(Throwable throwable) {
@@ -93,13 +147,54 @@ public class UserServiceImpl implements UserService {
         throw new RuntimeException("User service is temporarily unavailable");
     }
 
+    // one keyset page in id order, for callers that stream every user without holding them all
+    @Override
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "userService", fallbackMethod = "getUsersAfterFallback")
+    public List<UserResponse> getUsersAfter(long afterId, int limit) {
+        logger.debug("Fetching up to {} users after ID: {}", limit, afterId);
+        return userRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit)).stream()
+                .map(this::mapToUserResponse)
+                .collect(Collectors.toList());
+    }
+
+    public List<UserResponse> getUsersAfterFallback(long afterId, int limit, Throwable throwable) {
+        logger.error("Fallback method called for getUsersAfter due to: {}", throwable.getMessage());
+        throw new RuntimeException("User service is temporarily unavailable");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @CircuitBreaker(name = "userService", fallbackMethod = "getUsersCreatedBetweenFallback")
+    public List<UserResponse> getUsersCreatedBetween(LocalDateTime createdFrom, LocalDateTime createdTo) {
+        logger.debug("Fetching users created from {} to {}", createdFrom, createdTo);
+        if (userSnapshotStore.isReady()) {
+            return userSnapshotStore.findAll().stream()
+                    .filter(user -> createdFrom == null || !user.getCreatedAt().isBefore(createdFrom))
+                    .filter(user -> createdTo == null || user.getCreatedAt().isBefore(createdTo))
+                    .collect(Collectors.toList());
+        }
+        return userRepository.findResponsesCreatedBetween(createdFrom, createdTo);
+    }
+
+    public List<UserResponse> getUsersCreatedBetweenFallback(LocalDateTime createdFrom, LocalDateTime createdTo,
+                                                            Throwable throwable) {
+        logger.error("Fallback method called for getUsersCreatedBetween due to: {}", throwable.getMessage());
+        throw new RuntimeException("User service is temporarily unavailable");
+    }
+
     @Override
     @CircuitBreaker(name = "userService", fallbackMethod = "updateUserFallback")
     public UserResponse updateUser(Long id, UserRequest userRequest) {
         logger.info("Updating user with ID: {}", id);
         User user = findUserById(id);
+        String previousEmail = user.getEmailNormalized();
 
-        if (!user.getEmail().equals(userRequest.getEmail())) {
+        if (!previousEmail.equals(User.normalizeEmail(userRequest.getEmail()))) {
+            if (userShards.shardOfEmail(userRequest.getEmail()) != userShards.shardOfId(id)) {
+                throw new EmailShardMismatchException("Email " + userRequest.getEmail()
+                        + " belongs to another shard than user " + id);
+            }
             validateEmailUniquenessForOtherUser(userRequest.getEmail(), id);
         }
 
@@ -108,11 +203,23 @@ public class UserServiceImpl implements UserService {
         user.setAge(userRequest.getAge());
 
         User updatedUser = userRepository.save(user);
+        userSnapshotStore.put(updatedUser);
+        userResponseCache.invalidate(id);
+        // other instances drop their cached copies of the user when this reaches them
+        UserEvent userEvent = new UserEvent("UPDATED", updatedUser.getEmail(), id);
+        userEventPublisher.publishUserEventAfterCommit(userEvent);
+        userChangeFeed.publishAfterCommit(userEvent);
         logger.info("User updated successfully with ID: {}", id);
-        return mapToUserResponse(updatedUser);
+        UserResponse response = mapToUserResponse(updatedUser);
+        staleUserStore.putAfterCommit(response);
+        return response;
     }
 
     public UserResponse updateUserFallback(Long id, UserRequest userRequest, Throwable throwable) {
+        // a request error, not an outage; the breaker ignores it too
+        if (throwable instanceof EmailShardMismatchException mismatch) {
+            throw mismatch;
+        }
         logger.error("Fallback method called for updateUser due to: {}", throwable.getMessage());
         throw new RuntimeException("User service is temporarily unavailable");
     }
@@ -121,13 +228,22 @@ public class UserServiceImpl implements UserService {
     @CircuitBreaker(name = "userService", fallbackMethod = "deleteUserFallback")
     public void deleteUser(Long id) {
         logger.info("Deleting user with ID: {}", id);
-        User user = findUserById(id);
-        String userEmail = user.getEmail();
-
-        userRepository.deleteById(id);
+        String userEmail;
+        if (softDeleteEnabled) {
+            userEmail = userRepository.softDeleteById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        } else {
+            User user = findUserById(id);
+            userEmail = user.getEmail();
+            userRepository.deleteById(id);
+        }
+        userSnapshotStore.remove(id);
+        staleUserStore.remove(id);
+        userResponseCache.invalidate(id);
 
         UserEvent userEvent = new UserEvent("DELETED", userEmail, id);
-        userEventPublisher.publishUserEvent(userEvent);
+        userEventPublisher.publishUserEventAfterCommit(userEvent);
+        userChangeFeed.publishAfterCommit(userEvent);
         logger.info("User deleted successfully with ID: {}", id);
     }
 
@@ -139,14 +255,35 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     @CircuitBreaker(name = "userService", fallbackMethod = "getUserByEmailFallback")
-    public UserResponse getUserByEmail(String email) {
-        logger.info("Fetching user by email: {}", email);
+    public UserResponse getUserByEmail(String requestedEmail) {
+        logger.debug("Fetching user by email: {}", requestedEmail);
+        String email = User.normalizeEmail(requestedEmail);
+        if (userSnapshotStore.isReady()) {
+            Optional<UserResponse> snapshot = userSnapshotStore.findByEmail(email);
+            if (snapshot.isPresent()) {
+                staleUserStore.put(snapshot.get());
+                return snapshot.get();
+            }
+        }
+        long mark = userSnapshotStore.readMark();
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        return mapToUserResponse(user);
+        userSnapshotStore.fill(user, mark);
+        UserResponse response = mapToUserResponse(user);
+        staleUserStore.put(response);
+        return response;
     }
 
     public UserResponse getUserByEmailFallback(String email, Throwable throwable) {
+        if (throwable instanceof ResourceNotFoundException notFound) {
+            throw notFound;
+        }
+        Optional<StaleUserResponse> stale = staleUserStore.findByEmail(email);
+        if (stale.isPresent()) {
+            logger.warn("Serving user {} from stale store ({} s old) due to: {}",
+                    stale.get().getId(), stale.get().getAgeSeconds(), throwable.getMessage());
+            return stale.get();
+        }
         logger.error("Fallback method called for getUserByEmail due to: {}", throwable.getMessage());
         throw new ResourceNotFoundException("User service is temporarily unavailable");
     }
@@ -156,13 +293,15 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
     }
 
-    private void validateEmailUniqueness(String email) {
+    private void validateEmailUniqueness(String requestedEmail) {
+        String email = User.normalizeEmail(requestedEmail);
         if (userRepository.existsByEmail(email)) {
             throw new DuplicateEmailException("User with email " + email + " already exists");
         }
     }
 
-    private void validateEmailUniquenessForOtherUser(String email, Long excludeUserId) {
+    private void validateEmailUniquenessForOtherUser(String requestedEmail, Long excludeUserId) {
+        String email = User.normalizeEmail(requestedEmail);
         if (userRepository.existsByEmailAndIdNot(email, excludeUserId)) {
             throw new DuplicateEmailException("Another user with email " + email + " already exists");
         }
@@ -0,0 +1,26 @@
+package org.example.userservice.sharding;
+
+// Shard the current thread's next connection is taken from; unset means the default shard.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
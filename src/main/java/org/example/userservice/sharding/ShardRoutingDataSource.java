@@ -0,0 +1,45 @@
+package org.example.userservice.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hands out connections of the shard in ShardContext; the first shard also holds every non-user table.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
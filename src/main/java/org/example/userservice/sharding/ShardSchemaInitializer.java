@@ -0,0 +1,77 @@
+package org.example.userservice.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Flyway and Hibernate's schema generation only see the default shard; this brings every other shard to the same
+// schema and starts each shard's identity at the first id of its range.
+public class ShardSchemaInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private final ShardRoutingDataSource shards;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean flywayEnabled;
+    private final List<String> flywayLocations;
+    private final String ddlAuto;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource shards,
+                                  EntityManagerFactory entityManagerFactory,
+                                  boolean flywayEnabled,
+                                  List<String> flywayLocations,
+                                  String ddlAuto) {
+        this.shards = shards;
+        this.entityManagerFactory = entityManagerFactory;
+        this.flywayEnabled = flywayEnabled;
+        this.flywayLocations = flywayLocations;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (int shard = 1; shard < shards.getShardCount(); shard++) {
+            DataSource dataSource = shards.getShard(shard);
+            if (flywayEnabled) {
+                Flyway.configure()
+                        .dataSource(dataSource)
+                        .locations(flywayLocations.toArray(String[]::new))
+                        .baselineOnMigrate(true)
+                        .load()
+                        .migrate();
+            } else if (ddlAuto.startsWith("create")) {
+                exportSchema(shard);
+            }
+            alignIdentity(shard, new JdbcTemplate(dataSource));
+        }
+    }
+
+    private void exportSchema(int shard) {
+        ShardContext.set(shard);
+        try {
+            SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+            schemaManager.dropMappedObjects(false);
+            schemaManager.exportMappedObjects(false);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    // only moves the identity forward while the shard holds no id of its own range yet
+    private void alignIdentity(int shard, JdbcTemplate jdbcTemplate) {
+        long firstId = UserShards.firstId(shard);
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        if (maxId == null || maxId < firstId) {
+            jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + firstId);
+            logger.info("Shard {} issues user ids from {}", shard, firstId);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.example.userservice.sharding;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+// Sends each UserRepository call to the shard owning its id, email or entity. Calls without a routing key run
+// on every shard in parallel, each in its own transaction, and their results are merged. Ids are time-ordered on
+// every shard, so shards do not hold disjoint id ranges: ORDER BY id lists are merged by id, and pages and limits
+// are cut from the merged rows.
+// A transaction is pinned to the shard of its first user call, which must come before any other statement in it.
+@Aspect
+public class UserShardRoutingAspect {
+
+    private final UserShards userShards;
+    private final ExecutorService executor;
+    private final PlatformTransactionManager transactionManager;
+
+    public UserShardRoutingAspect(UserShards userShards, ExecutorService executor,
+                                  PlatformTransactionManager transactionManager) {
+        this.userShards = userShards;
+        this.executor = executor;
+        this.transactionManager = transactionManager;
+    }
+
+    @Around("target(org.example.userservice.repository.UserRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object[] args = joinPoint.getArgs();
+        if (method.getDeclaringClass() == Object.class || method.getName().equals("flush")) {
+            return joinPoint.proceed();
+        }
+        switch (method.getName()) {
+            case "findById", "existsById", "getReferenceById", "getById", "getOne", "deleteById",
+                    "findResponseById", "softDeleteById":
+                return onShard(userShards.shardOfId((Long) args[0]), joinPoint);
+            case "findByEmail", "existsByEmail", "existsByEmailAndIdNot":
+                return onShard(userShards.shardOfEmail((String) args[0]), joinPoint);
+            case "save", "saveAndFlush", "delete":
+                return onShard(userShards.shardOf((User) args[0]), joinPoint);
+            case "findAllById", "deleteAllById", "deleteAllByIdInBatch", "softDeleteAllByIdIn":
+                return grouped(joinPoint, method, args, id -> userShards.shardOfId((Long) id));
+            case "findByEmailIn":
+                return grouped(joinPoint, method, args, email -> userShards.shardOfEmail((String) email));
+            case "saveAll", "saveAllAndFlush", "deleteAll", "deleteAllInBatch":
+                if (args.length == 1) {
+                    return grouped(joinPoint, method, args, user -> userShards.shardOf((User) user));
+                }
+                break;
+            case "findAll":
+                if (args.length == 1 && args[0] instanceof Pageable pageable) {
+                    return page((UserRepository) joinPoint.getTarget(), pageable);
+                }
+                break;
+            default:
+                break;
+        }
+        for (Object arg : args) {
+            if (arg instanceof Pageable || arg instanceof Sort sort && !isIdOrder(sort)) {
+                throw new UnsupportedOperationException(method.getName() + " cannot be merged across shards");
+            }
+        }
+        Map<Integer, Callable<Object>> calls = new TreeMap<>();
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            calls.put(shard, () -> invoke(method, joinPoint.getTarget(), args));
+        }
+        Object merged = merge(method, scatter(method.getName(), calls));
+        // each shard returned up to the limit, the merge keeps the lowest ids of them all
+        for (Object arg : args) {
+            if (arg instanceof Limit limit && limit.isLimited() && merged instanceof List<?> list && list.size() > limit.max()) {
+                return new ArrayList<>(list.subList(0, limit.max()));
+            }
+        }
+        return merged;
+    }
+
+    private Object onShard(int shard, ProceedingJoinPoint joinPoint) throws Throwable {
+        Integer bound = ShardContext.current();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (bound == null) {
+                ShardContext.set(shard);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        ShardContext.clear();
+                    }
+                });
+            } else if (bound != shard) {
+                throw new IllegalStateException("Transaction on shard " + bound + " cannot reach shard " + shard);
+            }
+            return joinPoint.proceed();
+        }
+        ShardContext.set(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.set(bound);
+        }
+    }
+
+    private Object grouped(ProceedingJoinPoint joinPoint, Method method, Object[] args, ToIntFunction<Object> shardOf)
+            throws Throwable {
+        Map<Integer, List<Object>> keys = new TreeMap<>();
+        Map<Integer, List<Integer>> positions = new TreeMap<>();
+        int position = 0;
+        for (Object key : (Iterable<?>) args[0]) {
+            int shard = shardOf.applyAsInt(key);
+            keys.computeIfAbsent(shard, s -> new ArrayList<>()).add(key);
+            positions.computeIfAbsent(shard, s -> new ArrayList<>()).add(position++);
+        }
+        if (keys.isEmpty()) {
+            return merge(method, Map.of());
+        }
+        if (keys.size() == 1) {
+            return onShard(keys.keySet().iterator().next(), joinPoint);
+        }
+
+        Map<Integer, Callable<Object>> calls = new TreeMap<>();
+        keys.forEach((shard, shardKeys) -> {
+            Object[] shardArgs = args.clone();
+            shardArgs[0] = shardKeys;
+            calls.put(shard, () -> invoke(method, joinPoint.getTarget(), shardArgs));
+        });
+        Map<Integer, Object> results = scatter(method.getName(), calls);
+
+        // saveAll answers in argument order, so each shard's saved entities go back to where they came from
+        if (method.getName().startsWith("save")) {
+            Object[] saved = new Object[position];
+            results.forEach((shard, result) -> {
+                List<?> shardSaved = (List<?>) result;
+                List<Integer> shardPositions = positions.get(shard);
+                for (int i = 0; i < shardSaved.size(); i++) {
+                    saved[shardPositions.get(i)] = shardSaved.get(i);
+                }
+            });
+            return new ArrayList<>(Arrays.asList(saved));
+        }
+        return merge(method, results);
+    }
+
+    // a page can draw its rows from any mix of shards, so each shard reads its first offset + size rows and the page
+    // is cut from their merge; deep pages cost as much, so bulk reads walk the ids with findByIdGreaterThanOrderById
+    @SuppressWarnings("unchecked")
+    private Page<User> page(UserRepository repository, Pageable pageable) throws Throwable {
+        if (!isIdOrder(pageable.getSort())) {
+            throw new UnsupportedOperationException("Pages across shards can only be ordered by ascending id");
+        }
+        Sort sort = Sort.by("id");
+        Map<Integer, Callable<Object>> calls = new TreeMap<>();
+        for (int shard = 0; shard < userShards.count(); shard++) {
+            calls.put(shard, pageable.isUnpaged() ? () -> repository.findAll(sort)
+                    : () -> repository.findAll(PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)));
+        }
+        Map<Integer, Object> rows = scatter("findAll", calls);
+        List<List<?>> shardRows = new ArrayList<>();
+        long total = 0;
+        for (Object result : rows.values()) {
+            if (result instanceof Page<?> shardPage) {
+                shardRows.add(shardPage.getContent());
+                total += shardPage.getTotalElements();
+            } else {
+                shardRows.add((List<?>) result);
+            }
+        }
+        List<User> users = (List<User>) (List<?>) mergeById(shardRows);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(users);
+        }
+        int from = (int) Math.min(pageable.getOffset(), users.size());
+        int to = Math.min(from + pageable.getPageSize(), users.size());
+        return new PageImpl<>(new ArrayList<>(users.subList(from, to)), pageable, total);
+    }
+
+    // every shard runs on a worker in its own transaction, so the caller's transaction never sees a second shard
+    private Map<Integer, Object> scatter(String operation, Map<Integer, Callable<Object>> calls) throws Throwable {
+        Integer bound = ShardContext.current();
+        if (bound != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Transaction on shard " + bound + " cannot run " + operation
+                    + " on shards " + calls.keySet());
+        }
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        Map<Integer, Future<Object>> futures = new LinkedHashMap<>();
+        calls.forEach((shard, call) -> futures.put(shard, executor.submit(() -> {
+            ShardContext.set(shard);
+            try {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setReadOnly(readOnly);
+                return transaction.execute(status -> {
+                    try {
+                        return call.call();
+                    } catch (RuntimeException ex) {
+                        throw ex;
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                });
+            } finally {
+                ShardContext.clear();
+            }
+        })));
+
+        Map<Integer, Object> results = new TreeMap<>();
+        for (Map.Entry<Integer, Future<Object>> future : futures.entrySet()) {
+            try {
+                results.put(future.getKey(), future.getValue().get());
+            } catch (ExecutionException ex) {
+                futures.values().forEach(pending -> pending.cancel(false));
+                throw ex.getCause();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw ex;
+            }
+        }
+        return results;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Exception {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) ex.getCause();
+        }
+    }
+
+    private static Object merge(Method method, Map<Integer, Object> results) {
+        Class<?> type = method.getReturnType();
+        if (type == void.class) {
+            return null;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return results.values().stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (type == long.class || type == Long.class) {
+            return results.values().stream().mapToLong(result -> (Long) result).sum();
+        }
+        if (type == int.class || type == Integer.class) {
+            return results.values().stream().mapToInt(result -> (Integer) result).sum();
+        }
+        if (type == Optional.class) {
+            return results.values().stream()
+                    .map(result -> (Optional<?>) result)
+                    .filter(Optional::isPresent)
+                    .findFirst()
+                    .orElse(Optional.empty());
+        }
+        if (type.isAssignableFrom(List.class)) {
+            List<List<?>> lists = new ArrayList<>();
+            results.values().forEach(result -> {
+                List<Object> list = new ArrayList<>();
+                ((Iterable<?>) result).forEach(list::add);
+                lists.add(list);
+            });
+            return mergeById(lists);
+        }
+        throw new UnsupportedOperationException(method.getName() + " cannot be merged across shards");
+    }
+
+    // k-way merge of lists that each come in id order; lists of anything but users are concatenated
+    static List<Object> mergeById(List<List<?>> lists) {
+        List<Object> merged = new ArrayList<>(lists.stream().mapToInt(List::size).sum());
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparingLong(Cursor::id));
+        for (List<?> list : lists) {
+            if (list.isEmpty()) {
+                continue;
+            }
+            if (idOf(list.get(0)) == null) {
+                merged.addAll(list);
+            } else {
+                heads.add(new Cursor(list.iterator()));
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor head = heads.poll();
+            merged.add(head.current);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static Long idOf(Object row) {
+        if (row instanceof User user) {
+            return user.getId();
+        }
+        if (row instanceof UserResponse response) {
+            return response.getId();
+        }
+        return null;
+    }
+
+    private static final class Cursor {
+
+        private final Iterator<?> rows;
+        private Object current;
+        private long id;
+
+        Cursor(Iterator<?> rows) {
+            this.rows = rows;
+            advance();
+        }
+
+        boolean advance() {
+            if (!rows.hasNext()) {
+                return false;
+            }
+            current = rows.next();
+            id = idOf(current);
+            return true;
+        }
+
+        long id() {
+            return id;
+        }
+    }
+
+    private static boolean isIdOrder(Sort sort) {
+        return sort.isUnsorted() || sort.equals(Sort.by("id"));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.userservice.sharding;
+
+import org.example.userservice.id.SnowflakeIdGenerator;
+import org.example.userservice.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Which shard owns a user: new users go to the shard their email hashes to, and their id carries that shard.
+// Snowflake ids carry it in the low bits of their node field, database identities above SHARD_SHIFT.
+@Component
+public class UserShards {
+
+    // ids are (shard << 48) + a per-shard identity, so ids of the unsharded primary read as shard 0
+    public static final int SHARD_SHIFT = 48;
+    // identity ids stay below 2^53 and Snowflake ids start there, which is why every representation sends ids as strings
+    public static final int MAX_SHARDS = 32;
+    public static final int SHARD_BITS = Integer.numberOfTrailingZeros(MAX_SHARDS);
+
+    private final boolean enabled;
+    private final int count;
+
+    @Autowired
+    public UserShards(@Value("${app.sharding.enabled:false}") boolean enabled,
+                      @Value("${app.sharding.urls:}") List<String> urls) {
+        this.enabled = enabled;
+        this.count = enabled ? urls.size() : 1;
+        if (count < 1 || count > MAX_SHARDS) {
+            throw new IllegalArgumentException("app.sharding.urls must list 1 to " + MAX_SHARDS + " shards, got " + count);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    // ids that were never issued still land on some shard, where they are simply not found
+    public int shardOfId(long id) {
+        if (id >= SnowflakeIdGenerator.MIN_ID) {
+            return (SnowflakeIdGenerator.nodeOf(id) & (MAX_SHARDS - 1)) % count;
+        }
+        return (int) ((id >>> SHARD_SHIFT) % count);
+    }
+
+    public int shardOfEmail(String email) {
+        int h = User.normalizeEmail(email).hashCode();
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return Math.floorMod(h, count);
+    }
+
+    // users are never moved, so an email change has to stay on the shard the user already lives on
+    public int shardOf(User user) {
+        return user.getId() != null ? shardOfId(user.getId()) : shardOfEmail(user.getEmailNormalized());
+    }
+
+    public static long firstId(int shard) {
+        return ((long) shard << SHARD_SHIFT) + 1;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.userservice.timing;
+
+// Per-request phase durations from System.nanoTime() stamps. One instance per thread is reused for every request it
+// serves, so timing a request allocates nothing; outside a request (schedulers, shard workers) enter/exit do nothing.
+// Nested entries of the same phase (a repository call inside another) are timed once, by the outermost entry.
+public final class RequestTiming {
+
+    public enum Phase {
+        HANDLER, SERVICE, REPOSITORY, KAFKA
+    }
+
+    private static final int PHASES = Phase.values().length;
+
+    private static final ThreadLocal<RequestTiming> CURRENT = ThreadLocal.withInitial(RequestTiming::new);
+
+    private final long[] nanos = new long[PHASES];
+    private final int[] counts = new int[PHASES];
+    private final int[] depth = new int[PHASES];
+    private final long[] entered = new long[PHASES];
+    private long started;
+    private long handlerExited;
+    private boolean active;
+
+    private RequestTiming() {
+    }
+
+    public static RequestTiming begin() {
+        RequestTiming timing = CURRENT.get();
+        for (int i = 0; i < PHASES; i++) {
+            timing.nanos[i] = 0;
+            timing.counts[i] = 0;
+            timing.depth[i] = 0;
+        }
+        timing.handlerExited = 0;
+        timing.active = true;
+        timing.started = System.nanoTime();
+        return timing;
+    }
+
+    public void end() {
+        active = false;
+    }
+
+    public static void enter(Phase phase) {
+        RequestTiming timing = CURRENT.get();
+        if (timing.active && timing.depth[phase.ordinal()]++ == 0) {
+            timing.entered[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public static void exit(Phase phase) {
+        RequestTiming timing = CURRENT.get();
+        int i = phase.ordinal();
+        if (!timing.active || timing.depth[i] == 0 || --timing.depth[i] > 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        timing.nanos[i] += now - timing.entered[i];
+        timing.counts[i]++;
+        if (phase == Phase.HANDLER) {
+            timing.handlerExited = now;
+        }
+    }
+
+    public long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public int count(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    public long totalNanos(long now) {
+        return now - started;
+    }
+
+    // controller time that is not spent in the service: request binding, resource conversion and HATEOAS links
+    public long mappingNanos() {
+        return counts[Phase.HANDLER.ordinal()] == 0 ? 0 : Math.max(0, nanos(Phase.HANDLER) - nanos(Phase.SERVICE));
+    }
+
+    // from the controller's return to now: message conversion and writing the body
+    public long serializationNanos(long now) {
+        return handlerExited == 0 ? 0 : now - handlerExited;
+    }
+
+    // Server-Timing value with durations in milliseconds; phases that did not run are left out
+    public String header(long now) {
+        StringBuilder header = new StringBuilder(128);
+        append(header, "total", totalNanos(now), 0);
+        if (count(Phase.SERVICE) > 0) {
+            append(header, "svc", nanos(Phase.SERVICE), 0);
+        }
+        if (count(Phase.REPOSITORY) > 0) {
+            append(header, "db", nanos(Phase.REPOSITORY), count(Phase.REPOSITORY));
+        }
+        if (count(Phase.HANDLER) > 0) {
+            append(header, "map", mappingNanos(), 0);
+            append(header, "ser", serializationNanos(now), 0);
+        }
+        if (count(Phase.KAFKA) > 0) {
+            append(header, "kafka", nanos(Phase.KAFKA), count(Phase.KAFKA));
+        }
+        return header.toString();
+    }
+
+    private static void append(StringBuilder header, String name, long nanos, int calls) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        long micros = nanos / 1000;
+        long fraction = micros % 1000;
+        header.append(name).append(";dur=").append(micros / 1000).append('.');
+        if (fraction < 100) {
+            header.append('0');
+        }
+        if (fraction < 10) {
+            header.append('0');
+        }
+        header.append(fraction);
+        if (calls > 0) {
+            header.append(";desc=\"").append(calls).append(calls == 1 ? " call\"" : " calls\"");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.userservice.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+// Stamps controller, service and repository calls into the current RequestTiming. Ordered first, so the service
+// phase includes the circuit breaker and the transaction around the call, and the repository phase includes routing.
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTimingAspect {
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object handler(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestTiming.Phase.HANDLER, joinPoint);
+    }
+
+    @Around("target(org.example.userservice.service.UserService)"
+            + " || target(org.example.userservice.service.UserBulkService)"
+            + " || target(org.example.userservice.service.UserImportService)")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestTiming.Phase.SERVICE, joinPoint);
+    }
+
+    @Around("target(org.example.userservice.repository.UserRepository)")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestTiming.Phase.REPOSITORY, joinPoint);
+    }
+
+    private static Object timed(RequestTiming.Phase phase, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTiming.enter(phase);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTiming.exit(phase);
+        }
+    }
+}
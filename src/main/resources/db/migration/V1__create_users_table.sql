@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    email      VARCHAR(150) NOT NULL,
+    age        INTEGER,
+    created_at TIMESTAMP    NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
@@ -0,0 +1,7 @@
+ALTER TABLE users ADD COLUMN deleted_at TIMESTAMP;
+
+-- soft-deleted rows keep their email until purged, so uniqueness only applies to live rows
+ALTER TABLE users DROP CONSTRAINT uk_users_email;
+CREATE UNIQUE INDEX uk_users_email_live ON users (email) WHERE deleted_at IS NULL;
+
+CREATE INDEX idx_users_deleted_at ON users (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(600)  PRIMARY KEY,
+    fingerprint     VARCHAR(64)   NOT NULL,
+    status          INTEGER       NOT NULL,
+    content_type    VARCHAR(200),
+    location        VARCHAR(1000),
+    body            BYTEA         NOT NULL,
+    created_at      TIMESTAMP     NOT NULL,
+    expires_at      TIMESTAMP     NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
@@ -0,0 +1,2 @@
+-- nullable so the column is added without rewriting the table; V5 fills it in batches
+ALTER TABLE users ADD COLUMN email_normalized VARCHAR(150);
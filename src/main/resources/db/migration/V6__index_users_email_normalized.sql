@@ -0,0 +1,6 @@
+-- built concurrently so writes keep flowing; INCLUDE (id) keeps natural-id resolution index-only
+CREATE UNIQUE INDEX CONCURRENTLY uk_users_email_normalized_live
+    ON users (email_normalized) INCLUDE (id) WHERE deleted_at IS NULL;
+
+-- case-insensitive uniqueness replaces the exact-match index
+DROP INDEX CONCURRENTLY uk_users_email_live;
@@ -0,0 +1,84 @@
+-- users becomes range-partitioned by month of created_at, which is written once and never updated.
+-- Rows are copied into the new table in this transaction, under the lock taken below.
+CREATE TABLE users_partitioned (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name             VARCHAR(100) NOT NULL,
+    email            VARCHAR(150) NOT NULL,
+    age              INTEGER,
+    created_at       TIMESTAMP    NOT NULL,
+    deleted_at       TIMESTAMP,
+    email_normalized VARCHAR(150) NOT NULL
+) PARTITION BY RANGE (created_at);
+
+-- monthly partitions from the oldest row up to three months ahead; UserPartitionMaintainer keeps extending them
+DO $$
+DECLARE
+    month DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM users), now()))::date;
+    last  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month <= last LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF users_partitioned FOR VALUES FROM (%L) TO (%L)',
+                       'users_y' || to_char(month, 'YYYY"m"MM'), month, (month + INTERVAL '1 month')::date);
+        month := (month + INTERVAL '1 month')::date;
+    END LOOP;
+END
+$$;
+
+-- catches rows outside every monthly range instead of failing the insert
+CREATE TABLE users_default PARTITION OF users_partitioned DEFAULT;
+
+-- blocks inserts, updates and deletes on users until the migration commits, so none can land after the copy's
+-- snapshot and vanish with DROP TABLE; reads carry on against the old table until then
+LOCK TABLE users IN SHARE ROW EXCLUSIVE MODE;
+
+INSERT INTO users_partitioned (id, name, email, age, created_at, deleted_at, email_normalized)
+SELECT id, name, email, age, created_at, deleted_at, email_normalized FROM users;
+
+DROP TABLE users;
+ALTER TABLE users_partitioned RENAME TO users;
+SELECT setval(pg_get_serial_sequence('users', 'id'), COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+
+-- primary and unique keys of a partitioned table must contain the partition key. The database therefore no longer
+-- rejects two rows with the same id in different months; ids stay unique only because they come from the identity
+-- sequence or UserIdGenerator, so nothing may insert users with ids of its own.
+ALTER TABLE users ADD CONSTRAINT users_pkey PRIMARY KEY (id, created_at);
+-- rows arrive in created_at order, so block ranges stay tight and the index stays a few pages per partition
+CREATE INDEX idx_users_created_at_brin ON users USING brin (created_at);
+CREATE INDEX idx_users_email_normalized_live ON users (email_normalized) INCLUDE (id) WHERE deleted_at IS NULL;
+CREATE INDEX idx_users_deleted_at ON users (deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- a unique index on users would have to include created_at, so live emails are claimed here instead
+CREATE TABLE user_emails (
+    email_normalized VARCHAR(150) PRIMARY KEY,
+    user_id          BIGINT       NOT NULL
+);
+
+INSERT INTO user_emails (email_normalized, user_id)
+SELECT email_normalized, id FROM users WHERE deleted_at IS NULL;
+
+CREATE FUNCTION users_claim_email() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF OLD.deleted_at IS NULL THEN
+            DELETE FROM user_emails WHERE email_normalized = OLD.email_normalized AND user_id = OLD.id;
+        END IF;
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'UPDATE' THEN
+        IF OLD.deleted_at IS NULL AND NEW.deleted_at IS NULL AND OLD.email_normalized = NEW.email_normalized THEN
+            RETURN NULL;
+        END IF;
+        IF OLD.deleted_at IS NULL THEN
+            DELETE FROM user_emails WHERE email_normalized = OLD.email_normalized AND user_id = OLD.id;
+        END IF;
+    END IF;
+    IF NEW.deleted_at IS NULL THEN
+        INSERT INTO user_emails (email_normalized, user_id) VALUES (NEW.email_normalized, NEW.id);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_claim_email
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION users_claim_email();
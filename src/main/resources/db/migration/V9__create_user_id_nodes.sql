@@ -0,0 +1,10 @@
+-- One row per user id node. A running instance leases a row (see NodeIdLease) so no two instances issue ids on the
+-- same node; last_millis is the latest millisecond the previous holder may have issued ids in.
+CREATE TABLE user_id_nodes (
+    node_id     INTEGER      PRIMARY KEY,
+    owner       VARCHAR(200),
+    expires_at  TIMESTAMPTZ  NOT NULL DEFAULT '-infinity',
+    last_millis BIGINT       NOT NULL DEFAULT 0
+);
+
+INSERT INTO user_id_nodes (node_id) SELECT generate_series(0, 1023);
@@ -0,0 +1,109 @@
+package org.example.userservice.cache;
+
+import org.example.userservice.dto.StaleUserResponse;
+import org.example.userservice.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaleUserStoreTest {
+
+    @Test
+    void findById_ShouldReturnCopyMarkedStale() {
+        StaleUserStore store = new StaleUserStore(true, 1 << 20);
+        UserResponse response = user(1L, "john@example.com");
+        store.put(response);
+        response.setName("Changed After Put");
+
+        StaleUserResponse stale = store.findById(1L).orElseThrow();
+
+        assertEquals("John Doe", stale.getName());
+        assertEquals(0, stale.getAgeSeconds());
+        assertEquals(1L, store.findByEmail("john@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void put_ShouldReplaceEmailIndexAndIgnoreStaleResponses() {
+        StaleUserStore store = new StaleUserStore(true, 1 << 20);
+        store.put(user(1L, "john@example.com"));
+        store.put(user(1L, "john.updated@example.com"));
+        store.put(new StaleUserResponse(user(2L, "jane@example.com"), 60));
+
+        assertEquals(1, store.size());
+        assertEquals(Optional.empty(), store.findByEmail("john@example.com"));
+        assertTrue(store.findByEmail("john.updated@example.com").isPresent());
+        assertEquals(Optional.empty(), store.findById(2L));
+    }
+
+    @Test
+    void put_ShouldStayWithinBudgetAndUnindexEvictedEmails() {
+        StaleUserStore store = new StaleUserStore(true, 1000);
+        store.put(user(1L, "a@example.com"));
+        store.put(user(2L, "b@example.com"));
+        store.put(user(3L, "c@example.com"));
+        store.findById(1L);
+
+        store.put(user(4L, "d@example.com"));
+
+        assertTrue(store.getBytes() <= 1000);
+        assertEquals(3, store.size());
+        for (long id = 1; id <= 4; id++) {
+            String email = (char) ('a' + id - 1) + "@example.com";
+            assertEquals(store.findById(id).isPresent(), store.findByEmail(email).isPresent());
+        }
+    }
+
+    @Test
+    void putAfterCommit_ShouldStoreOnlyOnceTheTransactionCommits() {
+        StaleUserStore store = new StaleUserStore(true, 1 << 20);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.putAfterCommit(user(1L, "john@example.com"));
+            assertEquals(Optional.empty(), store.findById(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(store.findById(1L).isPresent());
+    }
+
+    @Test
+    void drainPendingRevalidation_ShouldReturnIdsServedStaleOnce() {
+        StaleUserStore store = new StaleUserStore(true, 1 << 20);
+        store.put(user(1L, "a@example.com"));
+        store.put(user(2L, "b@example.com"));
+        store.put(user(3L, "c@example.com"));
+        store.findById(3L);
+        store.findByEmail("a@example.com");
+        store.findById(3L);
+
+        assertEquals(Arrays.asList(3L, 1L), store.drainPendingRevalidation(10));
+        assertEquals(List.of(), store.drainPendingRevalidation(10));
+
+        store.findById(2L);
+        store.put(user(2L, "b@example.com"));
+        assertEquals(List.of(), store.drainPendingRevalidation(10));
+    }
+
+    @Test
+    void disabledStore_ShouldKeepNothing() {
+        StaleUserStore store = new StaleUserStore(false, 1 << 20);
+        store.put(user(1L, "john@example.com"));
+
+        assertEquals(0, store.size());
+        assertEquals(Optional.empty(), store.findById(1L));
+    }
+
+    private UserResponse user(Long id, String email) {
+        return new UserResponse(id, "John Doe", email, 30, LocalDateTime.now());
+    }
+}
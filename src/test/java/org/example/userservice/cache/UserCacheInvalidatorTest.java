@@ -0,0 +1,151 @@
+package org.example.userservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.event.UserEvent;
+import org.example.userservice.event.UserEventOrigin;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheInvalidatorTest {
+
+    private final UserEventOrigin origin = new UserEventOrigin();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserSnapshotStore snapshotStore;
+    private UserResponseCache responseCache;
+    private StaleUserStore staleUserStore;
+    private UserRepository userRepository;
+    private Cache secondLevelCache;
+    private NaturalIdDataAccess naturalIds;
+    private UserCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        snapshotStore = mock(UserSnapshotStore.class);
+        responseCache = new UserResponseCache(meterRegistry, true, 1 << 20);
+        staleUserStore = new StaleUserStore(true, 1 << 20);
+        userRepository = mock(UserRepository.class);
+
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+        secondLevelCache = mock(Cache.class);
+        naturalIds = mock(NaturalIdDataAccess.class);
+        EntityPersister persister = mock(EntityPersister.class);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+        when(sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class)).thenReturn(persister);
+        when(persister.getNaturalIdCacheAccessStrategy()).thenReturn(naturalIds);
+        when(sessionFactory.openSession()).thenReturn(mock(SessionImplementor.class));
+        when(naturalIds.generateCacheKey(any(), any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        invalidator = new UserCacheInvalidator(snapshotStore, responseCache, staleUserStore,
+                userRepository, entityManagerFactory, origin, meterRegistry);
+    }
+
+    @Test
+    void onEvents_FromOtherInstance_ShouldEvictAndRefreshInOneQuery() {
+        when(snapshotStore.isReady()).thenReturn(true);
+        User jane = new User("Jane Smith", "jane.new@example.com", 25);
+        jane.setId(2L);
+        when(userRepository.findAllById(Set.of(2L))).thenReturn(List.of(jane));
+        staleUserStore.put(response(2L, "jane@example.com"));
+        long version = responseCache.version(2L);
+
+        invalidator.onEvents(List.of(
+                record("other", new UserEvent("UPDATED", "Jane.New@example.com", 2L)),
+                record("other", new UserEvent("DELETED", "john@example.com", 1L))));
+
+        assertNotEquals(version, responseCache.version(2L));
+        assertEquals(Optional.empty(), staleUserStore.findById(2L));
+        verify(snapshotStore).refresh(eq(jane), anyLong());
+        verify(snapshotStore).remove(1L);
+        verify(secondLevelCache).evictEntityData(User.class, 1L);
+        verify(secondLevelCache).evictEntityData(User.class, 2L);
+        verify(secondLevelCache).evictDefaultQueryRegion();
+        verify(naturalIds).evict("jane.new@example.com");
+        verify(naturalIds).evict("john@example.com");
+        assertEquals(2.0, meterRegistry.get("user.cache.invalidation.events").counter().count());
+        assertEquals(2, meterRegistry.get("user.cache.invalidation.lag").timer().count());
+    }
+
+    @Test
+    void onEvents_ForCreatedUserNotYetVisible_ShouldNotRemoveIt() {
+        when(snapshotStore.isReady()).thenReturn(true);
+        when(userRepository.findAllById(Set.of(3L, 4L))).thenReturn(List.of());
+
+        invalidator.onEvents(List.of(
+                record("other", new UserEvent("CREATED", "bob@example.com", 3L)),
+                record("other", new UserEvent("UPDATED", "alice@example.com", 4L))));
+
+        verify(snapshotStore, never()).remove(3L);
+        verify(snapshotStore).remove(4L);
+    }
+
+    @Test
+    void onEvents_FromThisInstance_ShouldBeSkipped() {
+        ProducerRecord<String, Object> produced =
+                origin.onSend(new ProducerRecord<>("user-events", "john@example.com", new Object()));
+        ConsumerRecord<String, UserEvent> own = new ConsumerRecord<>("user-events", 0, 0L,
+                System.currentTimeMillis(), TimestampType.CREATE_TIME, 0, 0, "john@example.com",
+                new UserEvent("DELETED", "john@example.com", 1L), produced.headers(), Optional.empty());
+
+        invalidator.onEvents(List.of(own));
+
+        verify(snapshotStore, never()).remove(anyLong());
+        verify(secondLevelCache, never()).evictDefaultQueryRegion();
+        assertEquals(1.0, meterRegistry.get("user.cache.invalidation.skipped").counter().count());
+    }
+
+    @Test
+    void onEvents_WithUndecodableValue_ShouldIgnoreIt() {
+        invalidator.onEvents(List.of(record("other", null)));
+
+        verify(secondLevelCache, never()).evictDefaultQueryRegion();
+        assertEquals(0.0, meterRegistry.get("user.cache.invalidation.events").counter().count());
+    }
+
+    private static ConsumerRecord<String, UserEvent> record(String origin, UserEvent event) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(UserEventOrigin.HEADER, origin.getBytes());
+        return new ConsumerRecord<>("user-events", 0, 0L, System.currentTimeMillis() - 5, TimestampType.CREATE_TIME,
+                0, 0, event != null ? event.getEmail() : null, event, headers, Optional.empty());
+    }
+
+    private static UserResponse response(Long id, String email) {
+        UserResponse response = new UserResponse();
+        response.setId(id);
+        response.setName("Jane Smith");
+        response.setEmail(email);
+        response.setAge(25);
+        response.setCreatedAt(LocalDateTime.now());
+        return response;
+    }
+}
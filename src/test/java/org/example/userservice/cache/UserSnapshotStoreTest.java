@@ -0,0 +1,157 @@
+package org.example.userservice.cache;
+
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserSnapshotStoreTest {
+
+    private UserRepository userRepository;
+    private UserSnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        store = new UserSnapshotStore(userRepository, true, 100, 16);
+    }
+
+    @Test
+    void load_ShouldServeUsersFromRepository() {
+        User user1 = user(1L, "John Doe", "john@example.com", 30);
+        User user2 = user(2L, "Jane Smith", "jane@example.com", null);
+        when(userRepository.findByIdGreaterThanOrderById(any(), any(Limit.class))).thenReturn(Arrays.asList(user1, user2));
+
+        store.load();
+
+        assertTrue(store.isReady());
+        assertEquals(2, store.size());
+        UserResponse john = store.findById(1L).orElseThrow();
+        assertEquals("John Doe", john.getName());
+        assertEquals("john@example.com", john.getEmail());
+        assertEquals(30, john.getAge());
+        assertEquals(user1.getCreatedAt().withNano(0), john.getCreatedAt());
+        assertNull(store.findByEmail("jane@example.com").orElseThrow().getAge());
+    }
+
+    @Test
+    void put_ShouldReplaceExistingUserAndEmailIndex() {
+        store.put(user(1L, "John Doe", "john@example.com", 30));
+        store.put(user(1L, "John Updated", "john.updated@example.com", 31));
+
+        assertEquals(1, store.size());
+        assertEquals(Optional.empty(), store.findByEmail("john@example.com"));
+        assertEquals("John Updated", store.findByEmail("john.updated@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    void findByEmail_ShouldMatchMixedCaseEmailsAndKeepTheirSpelling() {
+        store.put(user(1L, "John Doe", "John.Doe@Example.com", 30));
+        store.fill(user(2L, "Jane Smith", "jane@example.com", 25), store.readMark());
+        // enough churn to compact the heap, which has to keep separate and shared keys apart
+        for (int i = 0; i < 50; i++) {
+            store.put(user(1L, "John Doe " + i, " John.Doe@Example.com ", 30));
+        }
+
+        UserResponse john = store.findByEmail("john.doe@example.com").orElseThrow();
+        assertEquals(1L, john.getId());
+        assertEquals(" John.Doe@Example.com ", john.getEmail());
+        assertEquals(1L, store.findByEmail(" JOHN.DOE@example.COM").orElseThrow().getId());
+        assertEquals(2L, store.findByEmail("jane@example.com").orElseThrow().getId());
+
+        store.remove(1L);
+        assertEquals(Optional.empty(), store.findByEmail("john.doe@example.com"));
+        assertEquals(2L, store.findByEmail("jane@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void fill_ShouldNotOverwriteAStoredUser() {
+        store.put(user(1L, "John Updated", "john.updated@example.com", 31));
+
+        store.fill(user(1L, "John Doe", "john@example.com", 30), store.readMark());
+
+        assertEquals("John Updated", store.findById(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void fill_ReadBeforeAWrite_ShouldBeDropped() {
+        long mark = store.readMark();
+        User read = user(1L, "John Doe", "john@example.com", 30);
+
+        store.put(user(2L, "Jane Smith", "jane@example.com", 25));
+        store.put(user(1L, "John Updated", "john.updated@example.com", 31));
+        store.remove(1L);
+        store.fill(read, mark);
+        store.refresh(read, mark);
+
+        assertEquals(Optional.empty(), store.findById(1L));
+        assertEquals(Optional.empty(), store.findByEmail("john@example.com"));
+        // a write to another user leaves fills of this one alone
+        store.fill(user(3L, "Bob Brown", "bob@example.com", 40), mark);
+        assertTrue(store.findById(3L).isPresent());
+    }
+
+    @Test
+    void remove_ShouldKeepRemainingUsersReachable() {
+        for (long id = 1; id <= 100; id++) {
+            store.put(user(id, "User " + id, "user" + id + "@example.com", (int) id));
+        }
+
+        for (long id = 1; id <= 100; id += 2) {
+            store.remove(id);
+        }
+
+        assertEquals(50, store.size());
+        for (long id = 1; id <= 100; id++) {
+            Optional<UserResponse> byId = store.findById(id);
+            Optional<UserResponse> byEmail = store.findByEmail("user" + id + "@example.com");
+            if (id % 2 == 1) {
+                assertTrue(byId.isEmpty());
+                assertTrue(byEmail.isEmpty());
+            } else {
+                assertEquals("User " + id, byId.orElseThrow().getName());
+                assertEquals(id, byEmail.orElseThrow().getId());
+            }
+        }
+    }
+
+    @Test
+    void findAll_ShouldReturnEveryStoredUser() {
+        store.put(user(1L, "John Doe", "john@example.com", 30));
+        store.put(user(2L, "Jane Smith", "jane@example.com", 25));
+
+        List<UserResponse> users = store.findAll();
+
+        assertEquals(2, users.size());
+        assertTrue(store.bytesPerUser() > 0);
+    }
+
+    @Test
+    void put_WhenDisabled_ShouldIgnoreWrites() {
+        UserSnapshotStore disabled = new UserSnapshotStore(userRepository, false, 100, 16);
+
+        disabled.put(user(1L, "John Doe", "john@example.com", 30));
+
+        assertFalse(disabled.isReady());
+        assertEquals(0, disabled.size());
+    }
+
+    private User user(Long id, String name, String email, Integer age) {
+        User user = new User(name, email, age);
+        user.setId(id);
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.userservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.example.userservice.converter.UserProtobufHttpMessageConverter;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.proto.UserListMessage;
+import org.example.userservice.proto.UserMessage;
+import org.example.userservice.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+class UserControllerContentNegotiationTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    void getUserByIdWithCborAcceptShouldReturnHalCbor() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(user(1L));
+
+        byte[] body = mockMvc.perform(get("/users/{id}", 1L).accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode json = new CBORMapper().readTree(body);
+        assertEquals("john@example.com", json.get("email").asText());
+        assertEquals("http://localhost/users/1", json.at("/_links/self/href").asText());
+    }
+
+    @Test
+    void getUserByIdWithSmileAcceptShouldReturnSmile() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(user(1L));
+
+        byte[] body = mockMvc.perform(get("/users/{id}", 1L).accept(SMILE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(1L, new SmileMapper().readTree(body).get("id").asLong());
+    }
+
+    @Test
+    void getAllUsersWithProtobufAcceptShouldReturnUserList() throws Exception {
+        when(userService.getAllUsers()).thenReturn(List.of(user(1L), user(2L)));
+
+        byte[] body = mockMvc.perform(get("/users").accept(UserProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        UserListMessage users = UserListMessage.parseFrom(body);
+        assertEquals(2, users.getUsersCount());
+        UserMessage first = users.getUsers(0);
+        assertEquals("John Doe", first.getName());
+    }
+
+    private UserResponse user(Long id) {
+        return new UserResponse(id, "John Doe", "john@example.com", 30, LocalDateTime.now());
+    }
+}
@@ -2,6 +2,7 @@ package org.example.userservice.controller;
 
 import org.example.userservice.dto.UserRequest;
 import org.example.userservice.dto.UserResponse;
+import org.example.userservice.id.SnowflakeIdGenerator;
 import org.example.userservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -51,7 +52,7 @@ class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userRequest)))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.id").value(1L))
+                .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.name").value("John Doe"))
                 .andExpect(jsonPath("$.email").value("john@example.com"))
                 .andExpect(jsonPath("$.age").value(30));
@@ -66,11 +67,24 @@ class UserControllerTest {
 
         mockMvc.perform(get("/api/users/{id}", userId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(userId))
+                .andExpect(jsonPath("$.id").value(userId.toString()))
                 .andExpect(jsonPath("$.name").value("John Doe"))
                 .andExpect(jsonPath("$.email").value("john@example.com"));
     }
 
+    @Test
+    void getUserByIdShouldSendSnowflakeIdsAsExactStrings() throws Exception {
+        // odd and above 2^53, so a double would round it
+        Long userId = SnowflakeIdGenerator.MIN_ID + 1;
+        UserResponse userResponse = new UserResponse(userId, "John Doe", "john@example.com", 30, LocalDateTime.now());
+
+        when(userService.getUserById(userId)).thenReturn(userResponse);
+
+        mockMvc.perform(get("/api/users/{id}", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("9007199254740993"));
+    }
+
     @Test
     void getAllUsersShouldReturnUserList() throws Exception {
         UserResponse user1 = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
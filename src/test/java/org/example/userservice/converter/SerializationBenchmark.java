@@ -0,0 +1,97 @@
+package org.example.userservice.converter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.userservice.dto.UserResource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Tag("benchmark")
+class SerializationBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    @Test
+    void compareEncodingsForUserList() throws Exception {
+        CollectionModel<EntityModel<UserResource>> users = userList();
+
+        report("hal+json", encoder(new JsonFactory()), users);
+        report("cbor", encoder(new CBORFactory()), users);
+        report("smile", encoder(new SmileFactory()), users);
+
+        UserProtobufHttpMessageConverter protobuf = new UserProtobufHttpMessageConverter();
+        report("protobuf", model -> {
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            protobuf.write(model, UserProtobufHttpMessageConverter.PROTOBUF, output);
+            return output.getBodyAsBytes();
+        }, users);
+    }
+
+    private void report(String name, Encoder encoder, CollectionModel<EntityModel<UserResource>> users)
+            throws Exception {
+        byte[] body = null;
+        for (int i = 0; i < WARMUP; i++) {
+            body = encoder.encode(users);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            body = encoder.encode(users);
+        }
+        long micros = (System.nanoTime() - started) / ITERATIONS / 1_000;
+
+        System.out.printf("%-9s %8d bytes  %7d bytes gzip  %6d us/encode (%d users)%n",
+                name, body.length, gzip(body).length, micros, USERS);
+    }
+
+    private Encoder encoder(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.findAndRegisterModules();
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new AnnotationLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+        return mapper::writeValueAsBytes;
+    }
+
+    private CollectionModel<EntityModel<UserResource>> userList() {
+        List<EntityModel<UserResource>> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            EntityModel<UserResource> user = EntityModel.of(new UserResource(id, "User " + id,
+                    "user" + id + "@example.com", (int) (id % 90), "2024-01-01T10:00:00.123456"));
+            user.add(Link.of("http://localhost:8081/users/" + id));
+            user.add(Link.of("http://localhost:8081/users/" + id, "update"));
+            user.add(Link.of("http://localhost:8081/users/" + id, "delete"));
+            users.add(user);
+        }
+        return CollectionModel.of(users, Link.of("http://localhost:8081/users"));
+    }
+
+    private byte[] gzip(byte[] body) throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encode(CollectionModel<EntityModel<UserResource>> users) throws Exception;
+    }
+}
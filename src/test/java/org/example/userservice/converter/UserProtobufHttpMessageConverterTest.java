@@ -0,0 +1,61 @@
+package org.example.userservice.converter;
+
+import org.example.userservice.dto.UserResource;
+import org.example.userservice.proto.UserListMessage;
+import org.example.userservice.proto.UserMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserProtobufHttpMessageConverterTest {
+
+    private final UserProtobufHttpMessageConverter converter = new UserProtobufHttpMessageConverter();
+
+    @Test
+    void canWrite_ShouldOnlyAcceptHypermediaModels() {
+        assertTrue(converter.canWrite(EntityModel.class, UserProtobufHttpMessageConverter.PROTOBUF));
+        assertTrue(converter.canWrite(CollectionModel.class, UserProtobufHttpMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(String.class, UserProtobufHttpMessageConverter.PROTOBUF));
+        assertFalse(converter.canRead(EntityModel.class, UserProtobufHttpMessageConverter.PROTOBUF));
+        assertFalse(converter.canWrite(EntityModel.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void write_ShouldEncodeSingleUserWithLinks() throws Exception {
+        EntityModel<UserResource> model = EntityModel.of(
+                new UserResource(1L, "John Doe", "john@example.com", 30, "2024-01-01T10:00"),
+                Link.of("http://localhost/users/1"));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(model, UserProtobufHttpMessageConverter.PROTOBUF, output);
+
+        UserMessage message = UserMessage.parseFrom(output.getBodyAsBytes());
+        assertEquals(1L, message.getId());
+        assertEquals("John Doe", message.getName());
+        assertEquals(30, message.getAge());
+        assertEquals("self", message.getLinks(0).getRel());
+        assertEquals("http://localhost/users/1", message.getLinks(0).getHref());
+    }
+
+    @Test
+    void write_ShouldEncodeUserListAndLeaveMissingAgeUnset() throws Exception {
+        CollectionModel<EntityModel<UserResource>> model = CollectionModel.of(List.of(
+                EntityModel.of(new UserResource(1L, "John Doe", "john@example.com", null, null)),
+                EntityModel.of(new UserResource(2L, "Jane Smith", "jane@example.com", 25, null))));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(model, UserProtobufHttpMessageConverter.PROTOBUF, output);
+
+        UserListMessage message = UserListMessage.parseFrom(output.getBodyAsBytes());
+        assertEquals(2, message.getUsersCount());
+        assertFalse(message.getUsers(0).hasAge());
+        assertEquals(25, message.getUsers(1).getAge());
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.userservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+@Tag("benchmark")
+class UserChangeFeedBenchmark {
+
+    private static final int SUBSCRIBERS = 10_000;
+    private static final int EVENTS = 2_000;
+
+    @Test
+    void broadcastToTenThousandSubscribers() throws Exception {
+        UserChangeFeed feed = new UserChangeFeed(new ObjectMapper().findAndRegisterModules(),
+                4096, SUBSCRIBERS, 256, 60_000, 1024, 8, 60_000);
+        feed.start();
+        LongAdder bytes = new LongAdder();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            feed.subscribe(new DiscardingEmitter(bytes), null);
+        }
+
+        long started = System.nanoTime();
+        for (long i = 1; i <= EVENTS; i++) {
+            feed.publish(new UserEvent("CREATED", "user" + i + "@example.com", i));
+        }
+        long expected = (long) SUBSCRIBERS * EVENTS;
+        while (feed.getDeliveredCount() < expected) {
+            Thread.sleep(1);
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        feed.stop();
+
+        System.out.printf("change feed: %d events to %d subscribers in %.2f s, %.0f events/s fanned out, "
+                        + "%.0f deliveries/s, %.1f MB written%n",
+                EVENTS, SUBSCRIBERS, seconds, EVENTS / seconds, expected / seconds, bytes.sum() / 1_048_576.0);
+    }
+
+    // stands in for the servlet response: encodes the frame the way the SSE handler would
+    static class DiscardingEmitter extends SseEmitter {
+
+        private final LongAdder bytes;
+
+        DiscardingEmitter(LongAdder bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            send(builder.build());
+        }
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            for (DataWithMediaType item : items) {
+                bytes.add(item.getData().toString().getBytes(StandardCharsets.UTF_8).length);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.userservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserChangeFeedTest {
+
+    private static final Pattern ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private UserChangeFeed feed;
+
+    @AfterEach
+    void tearDown() {
+        if (feed != null) {
+            feed.stop();
+        }
+    }
+
+    @Test
+    void ringBuffer_ShouldOverwriteOldestEntries() {
+        UserChangeRingBuffer ringBuffer = new UserChangeRingBuffer(4);
+        for (long i = 1; i <= 6; i++) {
+            assertEquals(i, ringBuffer.append(new UserEvent("CREATED", "user@example.com", i)));
+        }
+
+        assertEquals(3, ringBuffer.getOldestSequence());
+        assertNull(ringBuffer.get(2));
+        assertEquals(3L, ringBuffer.get(3).getEvent().getUserId());
+        assertNull(ringBuffer.get(7));
+    }
+
+    @Test
+    void subscribe_WithoutLastEventId_ShouldOnlyReceiveNewEvents() throws Exception {
+        feed = start(16);
+        feed.publish(new UserEvent("CREATED", "old@example.com", 1L));
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(feed.subscribe(emitter, null));
+
+        feed.publish(new UserEvent("UPDATED", "john@example.com", 2L));
+        feed.publish(new UserEvent("DELETED", "john@example.com", 2L));
+
+        assertEquals(List.of(2L, 3L), emitter.awaitIds(2));
+        assertTrue(emitter.frames().get(0).contains("event:UPDATED"));
+        assertTrue(emitter.frames().get(0).contains("\"email\":\"john@example.com\""));
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldResumeFromBuffer() throws Exception {
+        feed = start(16);
+        for (long i = 1; i <= 5; i++) {
+            feed.publish(new UserEvent("CREATED", "user" + i + "@example.com", i));
+        }
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(emitter, 2L);
+
+        assertEquals(List.of(3L, 4L, 5L), emitter.awaitIds(3));
+    }
+
+    @Test
+    void subscribe_BehindTheBuffer_ShouldSkipAhead() throws Exception {
+        feed = start(8);
+        for (long i = 1; i <= 20; i++) {
+            feed.publish(new UserEvent("CREATED", "user" + i + "@example.com", i));
+        }
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(emitter, 1L);
+
+        assertEquals(List.of(13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), emitter.awaitIds(8));
+        assertTrue(emitter.frames().get(0).contains("event:skipped"));
+        assertTrue(emitter.frames().get(0).contains("data:11"));
+    }
+
+    @Test
+    void stalledSubscriber_ShouldNotHoldUpOthersAndSkipAheadOnceItResumes() throws Exception {
+        feed = start(8);
+        CountDownLatch resume = new CountDownLatch(1);
+        StalledEmitter stalled = new StalledEmitter(resume);
+        RecordingEmitter healthy = new RecordingEmitter();
+        feed.subscribe(stalled, null);
+        feed.subscribe(healthy, null);
+
+        feed.publish(new UserEvent("CREATED", "user1@example.com", 1L));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        for (long i = 2; i <= 20; i++) {
+            feed.publish(new UserEvent("CREATED", "user" + i + "@example.com", i));
+            assertEquals(i, healthy.awaitIds((int) i).size());
+        }
+
+        resume.countDown();
+        // 2 and 3 were already queued when its queue of two filled up; 4 to 12 left the buffer meanwhile
+        assertEquals(List.of(1L, 2L, 3L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), stalled.awaitIds(11));
+        assertTrue(stalled.frames().get(3).contains("event:skipped"));
+        assertTrue(stalled.frames().get(3).contains("data:9"));
+    }
+
+    private UserChangeFeed start(int bufferSize) {
+        UserChangeFeed started = new UserChangeFeed(new ObjectMapper().findAndRegisterModules(),
+                bufferSize, 100, 256, 15000, 2, 2, 30000);
+        started.start();
+        return started;
+    }
+
+    static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> frames = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            send(builder.build());
+        }
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            frames.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        synchronized List<String> frames() {
+            return new ArrayList<>(frames);
+        }
+
+        List<Long> awaitIds(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            List<Long> ids = ids();
+            while (ids.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                ids = ids();
+            }
+            return ids;
+        }
+
+        private List<Long> ids() {
+            List<Long> ids = new ArrayList<>();
+            for (String frame : frames()) {
+                Matcher matcher = ID.matcher(frame);
+                if (matcher.find()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+            return ids;
+        }
+    }
+
+    // blocks in its first send until released, like a client that stopped reading
+    static class StalledEmitter extends RecordingEmitter {
+
+        private final CountDownLatch resume;
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        StalledEmitter(CountDownLatch resume) {
+            this.resume = resume;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            super.send(items);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.userservice.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserEventSpillQueueTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendPeekAcknowledge_ShouldKeepOrder() throws Exception {
+        UserEventSpillQueue queue = open(4096, 4);
+        for (long i = 1; i <= 5; i++) {
+            assertTrue(queue.append(new UserEvent("CREATED", "user" + i + "@example.com", i)));
+        }
+
+        List<UserEvent> events = queue.peek(3);
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(UserEvent::getUserId).toList());
+        assertEquals("user1@example.com", events.get(0).getEmail());
+        assertEquals("CREATED", events.get(0).getEventType());
+
+        queue.acknowledge(2);
+        assertEquals(3, queue.getBacklog());
+        assertEquals(List.of(3L, 4L, 5L), queue.peek(10).stream().map(UserEvent::getUserId).toList());
+    }
+
+    @Test
+    void reopen_ShouldRecoverBacklogAndCursor() throws Exception {
+        UserEventSpillQueue queue = open(4096, 4);
+        UserEvent first = new UserEvent("DELETED", "john@example.com", 1L);
+        queue.append(first);
+        queue.append(new UserEvent("DELETED", "jane@example.com", 2L));
+        queue.append(new UserEvent("DELETED", "bob@example.com", 3L));
+        queue.acknowledge(1);
+        queue.close();
+
+        UserEventSpillQueue reopened = open(4096, 4);
+        assertEquals(2, reopened.getBacklog());
+        List<UserEvent> events = reopened.peek(10);
+        assertEquals(List.of(2L, 3L), events.stream().map(UserEvent::getUserId).toList());
+
+        reopened.append(new UserEvent("CREATED", "amy@example.com", 4L));
+        assertEquals(List.of(2L, 3L, 4L), reopened.peek(10).stream().map(UserEvent::getUserId).toList());
+    }
+
+    @Test
+    void segments_ShouldRollAndBeDeletedOnceDrained() throws Exception {
+        UserEventSpillQueue queue = open(256, 3);
+        int appended = 0;
+        while (queue.append(new UserEvent("CREATED", "user" + appended + "@example.com", (long) appended))) {
+            appended++;
+        }
+        assertEquals(3, queue.getSegmentCount());
+        assertEquals(appended, queue.getBacklog());
+        assertEquals(1, queue.getDropped());
+
+        queue.acknowledge(appended);
+        assertEquals(0, queue.getBacklog());
+        assertEquals(1, queue.getSegmentCount());
+        assertTrue(queue.append(new UserEvent("CREATED", "again@example.com", 99L)));
+        assertEquals(99L, queue.peek(1).get(0).getUserId());
+    }
+
+    @Test
+    void encode_ShouldRoundTripTimestampAndNulls() throws Exception {
+        UserEventSpillQueue queue = open(4096, 2);
+        UserEvent event = new UserEvent("CREATED", null, null);
+        queue.append(event);
+
+        UserEvent decoded = queue.peek(1).get(0);
+        assertNull(decoded.getEmail());
+        assertNull(decoded.getUserId());
+        assertEquals(event.getTimestamp(), decoded.getTimestamp());
+    }
+
+    private UserEventSpillQueue open(int segmentBytes, int maxSegments) throws Exception {
+        UserEventSpillQueue queue = new UserEventSpillQueue(new SimpleMeterRegistry(), true,
+                directory.toString(), segmentBytes, maxSegments);
+        queue.open();
+        return queue;
+    }
+}
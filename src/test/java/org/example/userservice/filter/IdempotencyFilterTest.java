@@ -0,0 +1,142 @@
+package org.example.userservice.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.userservice.model.IdempotencyRecord;
+import org.example.userservice.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class IdempotencyFilterTest {
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        filter = new IdempotencyFilter(new IdempotencyStore(repository, Duration.ofHours(1), 100, 65536),
+                Duration.ofSeconds(5));
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void retryWithSameKey_ShouldReplayStoredResponseWithoutExecuting() throws Exception {
+        MockHttpServletResponse first = perform("key-1", "{\"email\":\"john@example.com\"}", created());
+        MockHttpServletResponse retry = perform("key-1", "{\"email\":\"john@example.com\"}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("/users/1", retry.getHeader("Location"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        verify(repository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void sameKeyWithDifferentBody_ShouldBeRejected() throws Exception {
+        perform("key-1", "{\"email\":\"john@example.com\"}", created());
+        MockHttpServletResponse reused = perform("key-1", "{\"email\":\"jane@example.com\"}", created());
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedResponse_ShouldNotBeStored() throws Exception {
+        FilterChain conflict = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(409);
+        };
+        perform("key-1", "{}", conflict);
+        perform("key-1", "{}", conflict);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void requestWithoutKey_ShouldAlwaysExecute() throws Exception {
+        perform(null, "{}", created());
+        perform(null, "{}", created());
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicate_ShouldWaitForInFlightExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> original =
+                CompletableFuture.supplyAsync(() -> performUnchecked("key-1", "{}", slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> performUnchecked("key-1", "{}", slow));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(201, original.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(201, duplicate.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals("true", duplicate.get().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setContentType("application/hal+json");
+            http.setHeader("Location", "/users/1");
+            http.getOutputStream().write(("{\"id\":1,\"request\":" + body + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse performUnchecked(String key, String body, FilterChain chain) {
+        try {
+            return perform(key, body, chain);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private MockHttpServletResponse perform(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/users");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
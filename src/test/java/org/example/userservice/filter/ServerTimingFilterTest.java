@@ -0,0 +1,105 @@
+package org.example.userservice.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.example.userservice.timing.RequestTiming;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void write_ShouldReportEveryPhaseThatRan() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(meterRegistry, true, 1);
+
+        MockHttpServletResponse response = perform(filter, (request, servletResponse) -> {
+            RequestTiming.enter(RequestTiming.Phase.HANDLER);
+            RequestTiming.enter(RequestTiming.Phase.SERVICE);
+            RequestTiming.enter(RequestTiming.Phase.REPOSITORY);
+            RequestTiming.enter(RequestTiming.Phase.REPOSITORY);
+            pause();
+            RequestTiming.exit(RequestTiming.Phase.REPOSITORY);
+            RequestTiming.exit(RequestTiming.Phase.REPOSITORY);
+            RequestTiming.enter(RequestTiming.Phase.REPOSITORY);
+            RequestTiming.exit(RequestTiming.Phase.REPOSITORY);
+            RequestTiming.exit(RequestTiming.Phase.SERVICE);
+            RequestTiming.exit(RequestTiming.Phase.HANDLER);
+            pause();
+            servletResponse.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            servletResponse.flushBuffer();
+        });
+
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("total;dur="));
+        assertTrue(header.contains("svc;dur="));
+        assertTrue(header.contains("db;dur=") && header.contains(";desc=\"2 calls\""));
+        assertTrue(header.contains("map;dur="));
+        assertTrue(header.contains("ser;dur="));
+        assertFalse(header.contains("kafka"));
+        assertEquals("{}", response.getContentAsString());
+
+        double db = meterRegistry.get("http.server.timing").tag("phase", "db").timer()
+                .totalTime(TimeUnit.MILLISECONDS);
+        assertTrue(db >= 1.0);
+        assertEquals(1, meterRegistry.get("http.server.timing").tag("phase", "ser").timer().count());
+        assertEquals(0, meterRegistry.get("http.server.timing").tag("phase", "kafka").timer().count());
+    }
+
+    @Test
+    void headerDisabled_ShouldOnlySampleMetrics() throws Exception {
+        ServerTimingFilter filter = new ServerTimingFilter(meterRegistry, false, 2);
+
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletResponse response = perform(filter, (request, servletResponse) -> {
+                RequestTiming.enter(RequestTiming.Phase.KAFKA);
+                RequestTiming.exit(RequestTiming.Phase.KAFKA);
+            });
+            assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+        }
+
+        assertEquals(2, meterRegistry.get("http.server.timing").tag("phase", "total").timer().count());
+        assertEquals(2, meterRegistry.get("http.server.timing").tag("phase", "kafka").timer().count());
+    }
+
+    @Test
+    void outsideRequest_ShouldNotRecord() throws Exception {
+        RequestTiming.enter(RequestTiming.Phase.REPOSITORY);
+        RequestTiming.exit(RequestTiming.Phase.REPOSITORY);
+
+        ServerTimingFilter filter = new ServerTimingFilter(meterRegistry, true, 1);
+        MockHttpServletResponse response = perform(filter, (request, servletResponse) -> { });
+
+        assertFalse(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER).contains("db"));
+        assertEquals(0, meterRegistry.get("http.server.timing").tag("phase", "db").timer().count());
+    }
+
+    private static MockHttpServletResponse perform(ServerTimingFilter filter, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void pause() {
+        long until = System.nanoTime() + 2_000_000;
+        while (System.nanoTime() < until) {
+            LockSupport.parkNanos(until - System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.userservice.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.controller.UserController;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Single-thread GET /users/{id} throughput with the controller rendering every time against cache hits.
+@Tag("benchmark")
+class UserResponseCacheBenchmark {
+
+    private static final int USERS = 100;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    @Test
+    void compareRenderedAndCachedResponses() throws Exception {
+        UserService userService = mock(UserService.class);
+        when(userService.getUserById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return new UserResponse(id, "User " + id, "user" + id + "@example.com", 30, LocalDateTime.now());
+        });
+
+        MockMvc rendered = MockMvcBuilders.standaloneSetup(new UserController(userService)).build();
+        MockMvc cached = MockMvcBuilders.standaloneSetup(new UserController(userService))
+                .addFilters(new UserResponseCacheFilter(new UserResponseCache(new SimpleMeterRegistry(), true, 1 << 24)))
+                .build();
+
+        report("rendered", rendered);
+        report("cached", cached);
+    }
+
+    private void report(String name, MockMvc mockMvc) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            mockMvc.perform(get("/users/" + (i % USERS)));
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mockMvc.perform(get("/users/" + (i % USERS)));
+        }
+        long nanos = System.nanoTime() - started;
+        System.out.printf("%-9s %8d requests/s per core  %6d us/request%n",
+                name, ITERATIONS * 1_000_000_000L / nanos, nanos / ITERATIONS / 1_000);
+    }
+}
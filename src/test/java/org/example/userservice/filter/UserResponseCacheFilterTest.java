@@ -0,0 +1,142 @@
+package org.example.userservice.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.userservice.cache.UserResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserResponseCacheFilterTest {
+
+    private UserResponseCache cache;
+    private UserResponseCacheFilter filter;
+    private AtomicInteger renders;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserResponseCache(new SimpleMeterRegistry(), true, 1 << 20);
+        filter = new UserResponseCacheFilter(cache);
+        renders = new AtomicInteger();
+    }
+
+    @Test
+    void repeatedGet_ShouldServeEncodedBodyWithoutRendering() throws Exception {
+        MockHttpServletResponse first = perform("/users/1", "application/hal+json", user("John"));
+        MockHttpServletResponse second = perform("/users/1", "application/hal+json", user("John"));
+
+        assertEquals(1, renders.get());
+        assertEquals(200, second.getStatus());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals("application/hal+json", second.getContentType());
+        assertNotNull(first.getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT, first.getHeader(HttpHeaders.VARY));
+        assertEquals(HttpHeaders.ACCEPT, second.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void differentAcceptHeader_ShouldBeCachedSeparately() throws Exception {
+        perform("/users/1", "application/hal+json", user("John"));
+        perform("/users/1", "application/cbor", user("John"));
+        perform("/users/1", "application/cbor", user("John"));
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void invalidate_ShouldDropCachedBodyForThatUserOnly() throws Exception {
+        perform("/users/1", "application/hal+json", user("John"));
+        perform("/users/2", "application/hal+json", user("Jane"));
+
+        cache.invalidate(1L);
+        MockHttpServletResponse refreshed = perform("/users/1", "application/hal+json", user("Johnny"));
+        perform("/users/2", "application/hal+json", user("Jane"));
+
+        assertEquals(3, renders.get());
+        assertTrue(refreshed.getContentAsString().contains("Johnny"));
+    }
+
+    @Test
+    void writeDuringRender_ShouldNotCacheTheOldBody() throws Exception {
+        perform("/users/1", "application/hal+json", (request, response) -> {
+            user("John").doFilter(request, response);
+            cache.invalidate(1L);
+        });
+        perform("/users/1", "application/hal+json", user("Johnny"));
+
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void matchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        String etag = perform("/users/1", "application/hal+json", user("John")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = request("/users/1", "application/hal+json");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, user("John"));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+        assertEquals(HttpHeaders.ACCEPT, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void staleOrFailedResponses_ShouldNotBeCached() throws Exception {
+        FilterChain stale = (request, response) -> {
+            renders.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setHeader(HttpHeaders.WARNING, "110 - \"Response is Stale\"");
+            http.setContentType("application/hal+json");
+            http.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        };
+        FilterChain notFound = (request, response) -> {
+            renders.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(404);
+        };
+
+        perform("/users/1", "application/hal+json", stale);
+        perform("/users/1", "application/hal+json", stale);
+        perform("/users/2", "application/hal+json", notFound);
+        perform("/users/2", "application/hal+json", notFound);
+
+        assertEquals(4, renders.get());
+    }
+
+    @Test
+    void otherPaths_ShouldPassThrough() throws Exception {
+        perform("/users/email/john@example.com", "application/hal+json", user("John"));
+        perform("/users/email/john@example.com", "application/hal+json", user("John"));
+
+        assertEquals(2, renders.get());
+    }
+
+    private MockHttpServletResponse perform(String uri, String accept, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(uri, accept), response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String uri, String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        return request;
+    }
+
+    private FilterChain user(String name) {
+        return (request, response) -> {
+            renders.incrementAndGet();
+            response.setContentType(((MockHttpServletRequest) request).getHeader(HttpHeaders.ACCEPT));
+            response.getOutputStream().write(("{\"name\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.userservice.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.proto.UserIdRequest;
+import org.example.userservice.proto.UserServiceGrpc;
+import org.example.userservice.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@Tag("benchmark")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.grpc.enabled=true",
+        "app.grpc.port=0",
+        "eureka.client.enabled=false",
+        "spring.main.lazy-initialization=false"
+})
+class GrpcVersusRestBenchmark {
+
+    private static final int WARMUP = 5_000;
+    private static final int SEQUENTIAL_CALLS = 20_000;
+    private static final int THREADS = 8;
+    private static final int CALLS_PER_THREAD = 5_000;
+
+    @LocalServerPort
+    private int restPort;
+
+    @Autowired
+    private GrpcServerConfig.GrpcServerLifecycle grpcServer;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    void compareGetUserByIdOverLoopback() throws Exception {
+        when(userService.getUserById(anyLong())).thenAnswer(invocation -> new UserResponse(
+                invocation.getArgument(0), "John Doe", "john@example.com", 30, LocalDateTime.now()));
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Call rest = id -> {
+            HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + restPort + "/users/" + id)).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+        };
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcServer.getPort())
+                .usePlaintext()
+                .build();
+        UserServiceGrpc.UserServiceBlockingStub stub = UserServiceGrpc.newBlockingStub(channel);
+        Call grpc = id -> stub.getUserById(UserIdRequest.newBuilder().setId(id).build());
+
+        try {
+            report("rest", rest);
+            report("grpc", grpc);
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    private void report(String name, Call call) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get(i + 1);
+        }
+
+        long[] latencies = new long[SEQUENTIAL_CALLS];
+        for (int i = 0; i < SEQUENTIAL_CALLS; i++) {
+            long started = System.nanoTime();
+            call.get(i + 1);
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    call.get(i + 1);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        executor.shutdown();
+
+        System.out.printf("%-5s p50 %6d us  p99 %6d us  %8.0f calls/s with %d threads%n", name,
+                latencies[SEQUENTIAL_CALLS / 2] / 1_000, latencies[SEQUENTIAL_CALLS * 99 / 100] / 1_000,
+                THREADS * CALLS_PER_THREAD / seconds, THREADS);
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void get(long id) throws Exception;
+    }
+}
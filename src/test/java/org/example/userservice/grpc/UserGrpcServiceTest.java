@@ -0,0 +1,219 @@
+package org.example.userservice.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validation;
+import org.example.userservice.dto.UserRequest;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.exception.DuplicateEmailException;
+import org.example.userservice.exception.ResourceNotFoundException;
+import org.example.userservice.proto.LookupRequest;
+import org.example.userservice.proto.LookupResponse;
+import org.example.userservice.proto.ListUsersRequest;
+import org.example.userservice.proto.UserIdRequest;
+import org.example.userservice.proto.UserInput;
+import org.example.userservice.proto.UserMessage;
+import org.example.userservice.proto.UserServiceGrpc;
+import org.example.userservice.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserGrpcServiceTest {
+
+    private UserService userService;
+    private Server server;
+    private ManagedChannel channel;
+    private UserServiceGrpc.UserServiceBlockingStub blockingStub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userService = mock(UserService.class);
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserGrpcService(userService, Validation.buildDefaultValidatorFactory().getValidator(), 2))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        blockingStub = UserServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void createUser_ShouldDelegateToUserService() {
+        when(userService.createUser(any(UserRequest.class))).thenReturn(user(1L, "john@example.com"));
+
+        UserMessage result = blockingStub.createUser(UserInput.newBuilder()
+                .setName("John Doe").setEmail("john@example.com").setAge(30).build());
+
+        assertEquals(1L, result.getId());
+        assertEquals("john@example.com", result.getEmail());
+        verify(userService).createUser(new UserRequest("John Doe", "john@example.com", 30));
+    }
+
+    @Test
+    void createUser_WithInvalidEmail_ShouldReturnInvalidArgument() {
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () -> blockingStub.createUser(
+                UserInput.newBuilder().setName("John Doe").setEmail("not-an-email").build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        verify(userService, never()).createUser(any(UserRequest.class));
+    }
+
+    @Test
+    void createUser_WithDuplicateEmail_ShouldReturnAlreadyExists() {
+        when(userService.createUser(any(UserRequest.class))).thenThrow(new DuplicateEmailException("duplicate"));
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () -> blockingStub.createUser(
+                UserInput.newBuilder().setName("John Doe").setEmail("john@example.com").build()));
+
+        assertEquals(Status.Code.ALREADY_EXISTS, ex.getStatus().getCode());
+    }
+
+    @Test
+    void getUserById_WithNonExistingId_ShouldReturnNotFound() {
+        when(userService.getUserById(999L)).thenThrow(new ResourceNotFoundException("User not found with id: 999"));
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.getUserById(UserIdRequest.newBuilder().setId(999L).build()));
+
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+    }
+
+    @Test
+    void getUserById_WithUnexpectedFailure_ShouldNotLeakTheMessage() {
+        when(userService.getUserById(1L)).thenThrow(new IllegalStateException("jdbc:postgresql://db-3:5432 refused"));
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.getUserById(UserIdRequest.newBuilder().setId(1L).build()));
+
+        assertEquals(Status.Code.INTERNAL, ex.getStatus().getCode());
+        assertEquals("Internal error", ex.getStatus().getDescription());
+    }
+
+    @Test
+    void listUsers_ShouldStreamAllUsersPageByPage() {
+        when(userService.getUsersAfter(Long.MIN_VALUE, 2))
+                .thenReturn(Arrays.asList(user(1L, "john@example.com"), user(2L, "jane@example.com")));
+        when(userService.getUsersAfter(2L, 2)).thenReturn(List.of(user(3L, "bob@example.com")));
+        when(userService.getUsersAfter(3L, 2)).thenReturn(List.of());
+
+        Iterator<UserMessage> users = blockingStub.listUsers(ListUsersRequest.getDefaultInstance());
+
+        List<Long> ids = new ArrayList<>();
+        users.forEachRemaining(user -> ids.add(user.getId()));
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    void listUsers_ShouldOnlyReadAheadAsFarAsTheClientRequests() {
+        when(userService.getUsersAfter(Long.MIN_VALUE, 2))
+                .thenReturn(Arrays.asList(user(1L, "john@example.com"), user(2L, "jane@example.com")));
+        when(userService.getUsersAfter(2L, 2)).thenReturn(List.of(user(3L, "bob@example.com")));
+        when(userService.getUsersAfter(3L, 2)).thenReturn(List.of());
+
+        List<Long> ids = new ArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicReference<ClientCallStreamObserver<ListUsersRequest>> requests = new AtomicReference<>();
+        UserServiceGrpc.newStub(channel).listUsers(ListUsersRequest.getDefaultInstance(),
+                new ClientResponseObserver<ListUsersRequest, UserMessage>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<ListUsersRequest> requestStream) {
+                        requests.set(requestStream);
+                        requestStream.disableAutoRequestWithInitial(1);
+                    }
+
+                    @Override
+                    public void onNext(UserMessage user) {
+                        ids.add(user.getId());
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        completed.countDown();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.countDown();
+                    }
+                });
+
+        assertEquals(List.of(1L), ids);
+        verify(userService, never()).getUsersAfter(2L, 2);
+
+        requests.get().request(10);
+
+        assertEquals(0, completed.getCount());
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    void lookupUsers_ShouldAnswerEachRequestOnTheStream() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(user(1L, "john@example.com"));
+        when(userService.getUserByEmail("missing@example.com"))
+                .thenThrow(new ResourceNotFoundException("User not found with email: missing@example.com"));
+
+        List<LookupResponse> responses = new ArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<LookupRequest> requests = UserServiceGrpc.newStub(channel).lookupUsers(new StreamObserver<>() {
+            @Override
+            public void onNext(LookupResponse response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completed.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.countDown();
+            }
+        });
+        requests.onNext(LookupRequest.newBuilder().setId(1L).build());
+        requests.onNext(LookupRequest.newBuilder().setEmail("missing@example.com").build());
+        requests.onCompleted();
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, responses.size());
+        assertTrue(responses.get(0).getFound());
+        assertEquals("john@example.com", responses.get(0).getUser().getEmail());
+        assertFalse(responses.get(1).getFound());
+    }
+
+    private UserResponse user(Long id, String email) {
+        return new UserResponse(id, "John Doe", email, 30, LocalDateTime.now());
+    }
+}
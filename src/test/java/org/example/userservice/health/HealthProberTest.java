@@ -0,0 +1,112 @@
+package org.example.userservice.health;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthProberTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HealthProber prober;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (prober != null) {
+            prober.shutdown();
+        }
+    }
+
+    @Test
+    void health_BeforeFirstProbe_ShouldBeOutOfService() {
+        StubIndicator indicator = new StubIndicator("stub", 30_000, () -> Health.up().build());
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    }
+
+    @Test
+    void probe_ShouldStoreResultsAndServeThemWithoutChecking() {
+        StubIndicator up = new StubIndicator("up", 30_000, () -> Health.up().build());
+        StubIndicator failing = new StubIndicator("failing", 30_000, () -> {
+            throw new IllegalStateException("connection refused");
+        });
+        prober = new HealthProber(List.of(up, failing), 1_000);
+
+        prober.probe();
+        for (int i = 0; i < 100; i++) {
+            up.health();
+        }
+
+        assertEquals(Status.UP, up.health().getStatus());
+        assertEquals(1, up.checks.get());
+        assertEquals(Status.DOWN, failing.health().getStatus());
+        assertTrue(failing.health().getDetails().get("error").toString().contains("connection refused"));
+    }
+
+    @Test
+    void probe_WhenCheckHangs_ShouldTimeOutAndNotStartAnother() {
+        // like a driver call stuck on a socket, the check ignores the interrupt from the timeout
+        StubIndicator hanging = new StubIndicator("hanging", 30_000, () -> {
+            while (true) {
+                try {
+                    release.await();
+                    return Health.up().build();
+                } catch (InterruptedException ignored) {
+                    // keep waiting
+                }
+            }
+        });
+        prober = new HealthProber(List.of(hanging), 100);
+
+        long started = System.nanoTime();
+        prober.probe();
+        assertTrue(System.nanoTime() - started < 5_000_000_000L);
+        assertEquals(Status.DOWN, hanging.health().getStatus());
+        assertTrue(hanging.health().getDetails().get("error").toString().contains("timed out"));
+
+        prober.probe();
+        assertEquals(Status.DOWN, hanging.health().getStatus());
+        assertEquals("previous probe has not returned", hanging.health().getDetails().get("error"));
+    }
+
+    @Test
+    void health_WithSnapshotOlderThanStaleAfter_ShouldBeDown() throws Exception {
+        StubIndicator indicator = new StubIndicator("stale", 50, () -> Health.up().build());
+        prober = new HealthProber(List.of(indicator), 1_000);
+        prober.probe();
+        assertEquals(Status.UP, indicator.health().getStatus());
+
+        Thread.sleep(100);
+
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+        assertEquals("UP", indicator.health().getDetails().get("last"));
+    }
+
+    private interface Check {
+        Health check() throws Exception;
+    }
+
+    private static final class StubIndicator extends ProbedHealthIndicator {
+
+        private final Check check;
+        private final AtomicInteger checks = new AtomicInteger();
+
+        StubIndicator(String name, long staleAfterMs, Check check) {
+            super(name, staleAfterMs);
+            this.check = check;
+        }
+
+        @Override
+        protected Health check() throws Exception {
+            checks.incrementAndGet();
+            return check.check();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.userservice.id;
+
+import org.example.userservice.model.User;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Runs against -Dtest.postgres.url (with test.postgres.username/password) in a throwaway schema migrated by Flyway,
+// and is skipped when no database is given.
+class NodeIdLeaseTest {
+
+    private static final String POSTGRES_URL = System.getProperty("test.postgres.url");
+
+    private SingleConnectionDataSource postgres;
+    private String schema;
+
+    @AfterEach
+    void tearDown() {
+        if (postgres != null) {
+            new JdbcTemplate(postgres).execute("DROP SCHEMA " + schema + " CASCADE");
+            postgres.destroy();
+        }
+    }
+
+    @Test
+    void acquire_ShouldGiveEachInstanceItsOwnNodeAndFailWhenNoneIsFree() {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+
+        try (NodeIdLease first = lease(jdbcTemplate, "first", 1, Duration.ofSeconds(60));
+             NodeIdLease second = lease(jdbcTemplate, "second", 1, Duration.ofSeconds(60))) {
+            assertNotEquals(first.acquire(), second.acquire());
+            assertThrows(IllegalStateException.class,
+                    () -> lease(jdbcTemplate, "third", 1, Duration.ofSeconds(60)).acquire());
+        }
+    }
+
+    @Test
+    void close_ShouldFreeTheNodeAndRefuseFurtherIds() {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+        NodeIdLease first = lease(jdbcTemplate, "first", 0, Duration.ofSeconds(60));
+        UserIdGenerator generator = new UserIdGenerator(first.acquire(), 5_000, null, first);
+        long lastId = generator.nextId(new User("John", "john@example.com", 30));
+
+        first.close();
+
+        assertThrows(IllegalStateException.class, () -> generator.nextId(new User("Jane", "jane@example.com", 30)));
+        try (NodeIdLease second = lease(jdbcTemplate, "second", 0, Duration.ofSeconds(60))) {
+            UserIdGenerator next = new UserIdGenerator(second.acquire(), 5_000, null, second);
+            // the new holder starts after the last millisecond of the previous one
+            assertTrue(next.nextId(new User("Jane", "jane@example.com", 30)) > lastId);
+        }
+    }
+
+    @Test
+    void checkHeld_WithoutRenewal_ShouldExpireBeforeTheRowDoes() throws Exception {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+
+        try (NodeIdLease lease = lease(jdbcTemplate, "first", 0, Duration.ofSeconds(1))) {
+            lease.acquire();
+            lease.checkHeld();
+            Thread.sleep(950);
+
+            assertThrows(IllegalStateException.class, lease::checkHeld);
+            lease.renew();
+            lease.checkHeld();
+        }
+    }
+
+    private JdbcTemplate migratePostgres() {
+        assumeTrue(POSTGRES_URL != null, "test.postgres.url is not set");
+        schema = "node_lease_test_" + System.nanoTime();
+        postgres = new SingleConnectionDataSource(POSTGRES_URL,
+                System.getProperty("test.postgres.username", "postgres"),
+                System.getProperty("test.postgres.password", ""), true);
+        Flyway.configure()
+                .dataSource(postgres)
+                .schemas(schema)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        return jdbcTemplate;
+    }
+
+    private static NodeIdLease lease(JdbcTemplate jdbcTemplate, String owner, int maxNodeId, Duration ttl) {
+        return new NodeIdLease(jdbcTemplate, owner, maxNodeId, ttl, 5_000);
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.userservice.id;
+
+import org.example.userservice.model.User;
+import org.example.userservice.sharding.UserShards;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000_000L;
+
+    @Test
+    void nextId_ShouldEncodeTimestampNodeAndSequence() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, 1_000, () -> NOW);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(NOW, SnowflakeIdGenerator.epochMillisOf(first));
+        assertEquals(5, SnowflakeIdGenerator.nodeOf(first));
+        assertEquals(first + 1, second);
+        assertTrue(first >= SnowflakeIdGenerator.MIN_ID);
+    }
+
+    @Test
+    void nextId_WhenClockMovesBackWithinTolerance_ShouldKeepIncreasing() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1_000, clock::get);
+
+        long before = generator.nextId();
+        clock.set(NOW - 500);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(NOW, SnowflakeIdGenerator.epochMillisOf(after));
+    }
+
+    @Test
+    void nextId_WhenClockMovesBackBeyondTolerance_ShouldRefuse() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1_000, clock::get);
+        generator.nextId();
+
+        clock.set(NOW - 1_001);
+
+        assertThrows(IllegalStateException.class, generator::nextId);
+        clock.set(NOW + 1);
+        assertEquals(NOW + 1, SnowflakeIdGenerator.epochMillisOf(generator.nextId()));
+    }
+
+    @Test
+    void nextId_WhenSequenceIsExhausted_ShouldWaitForNextMillisecond() {
+        AtomicLong reads = new AtomicLong();
+        // the clock only moves on after the first 4096 ids have been taken from NOW
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1_000,
+                () -> reads.incrementAndGet() > 5_000 ? NOW + 1 : NOW);
+
+        long last = 0;
+        for (int i = 0; i < 4_096; i++) {
+            last = generator.nextId();
+        }
+        long next = generator.nextId();
+
+        assertEquals(NOW, SnowflakeIdGenerator.epochMillisOf(last));
+        assertEquals(NOW + 1, SnowflakeIdGenerator.epochMillisOf(next));
+        assertTrue(next > last);
+    }
+
+    @Test
+    void constructor_WhenNodeOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, 1_000));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE + 1, 1_000));
+    }
+
+    @Test
+    void nextId_FromManyThreads_ShouldNeverRepeat() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int perThread = 100_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 1_000);
+        Set<Long> ids = ConcurrentHashMap.newKeySet(threads * perThread);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    long previous = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        long id = generator.nextId();
+                        // ids handed to one thread are increasing, not just distinct
+                        assertTrue(id > previous);
+                        assertTrue(ids.add(id), "duplicate id " + id);
+                        previous = id;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void userIdGenerator_WithSharding_ShouldIssueIdsOnTheEmailsShard() {
+        UserShards userShards = new UserShards(true, List.of("a", "b", "c"));
+        UserIdGenerator generator = new UserIdGenerator(3, 1_000, userShards);
+
+        for (int i = 0; i < 100; i++) {
+            User user = new User("User " + i, "user" + i + "@example.com", 30);
+            long id = generator.nextId(user);
+            assertEquals(userShards.shardOfEmail(user.getEmail()), userShards.shardOfId(id));
+            assertEquals(3, SnowflakeIdGenerator.nodeOf(id) >> UserShards.SHARD_BITS);
+        }
+        // database identities keep routing by their high bits
+        assertEquals(2, userShards.shardOfId(UserShards.firstId(2)));
+    }
+
+    @Test
+    void userIdGenerator_WithSharding_ShouldRejectNodesThatOverlapTheShardBits() {
+        UserShards userShards = new UserShards(true, List.of("a", "b"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new UserIdGenerator(UserIdGenerator.maxNodeId(userShards) + 1, 1_000, userShards));
+    }
+}
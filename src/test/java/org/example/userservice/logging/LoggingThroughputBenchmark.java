@@ -0,0 +1,99 @@
+package org.example.userservice.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+@Tag("benchmark")
+class LoggingThroughputBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 200_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareSynchronousAndAsyncLogging() throws Exception {
+        double before = run("sync", false);
+        double after = run("async", true);
+
+        System.out.printf("logging throughput: sync %.0f events/s, async %.0f events/s (%.1fx)%n",
+                before, after, after / before);
+    }
+
+    // both arms write every event: no rate limiting, no discarding, and the async queue is drained before timing stops
+    private double run(String name, boolean async) throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.start();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(directory.resolve(name + ".log").toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (async) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setDiscardingThreshold(0);
+            asyncAppender.setNeverBlock(false);
+            asyncAppender.setMaxFlushTime(0);
+            asyncAppender.addAppender(file);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        Logger logger = context.getLogger("org.example.userservice.service.UserServiceImpl");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < EVENTS_PER_THREAD; i++) {
+                    logger.info("Fetching user by ID: {}", i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // stopping flushes whatever the async worker has not written yet
+        context.stop();
+        long elapsed = System.nanoTime() - started;
+
+        return THREADS * (double) EVENTS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.userservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingFilterTest {
+
+    @Test
+    void decide_ShouldDenyInfoBeyondLimitPerLogger() {
+        RateLimitingFilter filter = new RateLimitingFilter();
+        filter.setMaxPerSecond(2);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("a", Level.INFO, 1_000)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("a", Level.INFO, 1_100)));
+        assertEquals(FilterReply.DENY, filter.decide(event("a", Level.INFO, 1_200)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("b", Level.INFO, 1_200)));
+        assertEquals(1, filter.getSuppressedCount());
+    }
+
+    @Test
+    void decide_ShouldResetLimitEverySecond() {
+        RateLimitingFilter filter = new RateLimitingFilter();
+        filter.setMaxPerSecond(1);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("a", Level.INFO, 1_000)));
+        assertEquals(FilterReply.DENY, filter.decide(event("a", Level.INFO, 1_999)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("a", Level.INFO, 2_000)));
+    }
+
+    @Test
+    void decide_ShouldAlwaysPassWarningsAndErrors() {
+        RateLimitingFilter filter = new RateLimitingFilter();
+        filter.setMaxPerSecond(0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("a", Level.WARN, 1_000)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event("a", Level.ERROR, 1_000)));
+        assertEquals(FilterReply.DENY, filter.decide(event("a", Level.INFO, 1_000)));
+    }
+
+    private LoggingEvent event(String loggerName, Level level, long timestamp) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(loggerName);
+        event.setLevel(level);
+        event.setTimeStamp(timestamp);
+        return event;
+    }
+}
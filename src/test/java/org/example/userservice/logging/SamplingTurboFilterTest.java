@@ -0,0 +1,90 @@
+package org.example.userservice.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger sqlLogger = context.getLogger("org.hibernate.SQL");
+
+    @Test
+    void decide_ShouldPassFirstCallOfEverySample() {
+        SamplingTurboFilter filter = filter(3);
+
+        List<FilterReply> replies = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            replies.add(decide(filter, sqlLogger));
+        }
+
+        assertEquals(List.of(FilterReply.NEUTRAL, FilterReply.DENY, FilterReply.DENY,
+                FilterReply.NEUTRAL, FilterReply.DENY, FilterReply.DENY,
+                FilterReply.NEUTRAL), replies);
+    }
+
+    @Test
+    void decide_ShouldSampleOneInHundredByDefault() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setLoggerName("org.hibernate.SQL");
+
+        int passed = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (decide(filter, sqlLogger) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        assertEquals(10, passed);
+    }
+
+    @Test
+    void decide_ShouldPassLevelChecksWithoutCountingThem() {
+        SamplingTurboFilter filter = filter(2);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sqlLogger, Level.DEBUG, null, null, null));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, sqlLogger));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sqlLogger, Level.DEBUG, null, null, null));
+        assertEquals(FilterReply.DENY, decide(filter, sqlLogger));
+    }
+
+    @Test
+    void decide_ForOtherLoggers_ShouldPassEverything() {
+        SamplingTurboFilter filter = filter(1_000);
+        Logger other = context.getLogger("org.example.userservice");
+
+        decide(filter, sqlLogger);
+        assertEquals(FilterReply.NEUTRAL, decide(filter, other));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, other));
+        assertEquals(FilterReply.DENY, decide(filter, sqlLogger));
+    }
+
+    @Test
+    void setSampleEvery_WithZeroOrLess_ShouldPassEverything() {
+        SamplingTurboFilter filter = filter(0);
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, sqlLogger));
+        assertEquals(FilterReply.NEUTRAL, decide(filter, sqlLogger));
+
+        filter.setSampleEvery(-5);
+        assertEquals(FilterReply.NEUTRAL, decide(filter, sqlLogger));
+    }
+
+    private SamplingTurboFilter filter(int sampleEvery) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setLoggerName("org.hibernate.SQL");
+        filter.setSampleEvery(sampleEvery);
+        return filter;
+    }
+
+    private FilterReply decide(SamplingTurboFilter filter, Logger logger) {
+        return filter.decide(null, logger, Level.DEBUG, "select u1_0.id from users u1_0", null, null);
+    }
+}
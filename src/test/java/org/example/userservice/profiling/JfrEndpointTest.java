@@ -0,0 +1,87 @@
+package org.example.userservice.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void start_WithUnknownSettingsOrTooLong_ShouldBeRejected() {
+        JfrEndpoint endpoint = endpoint(5);
+
+        assertEquals(400, endpoint.start("verbose", 10).getStatus());
+        assertEquals(400, endpoint.start("profile", 0).getStatus());
+        assertEquals(400, endpoint.start("profile", 120).getStatus());
+        assertTrue(endpoint.recordings().isEmpty());
+    }
+
+    @Test
+    void recording_ShouldBeSummarizedAndDownloadableOnceFinished() throws Exception {
+        JfrEndpoint endpoint = endpoint(5);
+
+        WebEndpointResponse<Object> started = endpoint.start("profile", 1);
+        assertEquals(200, started.getStatus());
+        long id = ((JfrEndpoint.RecordingInfo) started.getBody()).id();
+        assertEquals(429, endpoint.start("default", 1).getStatus());
+        assertEquals(503, endpoint.summary(id).getStatus());
+
+        // some work for the execution and allocation samplers while the recording runs
+        List<String> garbage = new ArrayList<>();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        WebEndpointResponse<Object> summary;
+        do {
+            garbage.add(String.valueOf(System.nanoTime()).repeat(16));
+            if (garbage.size() > 10_000) {
+                garbage.clear();
+            }
+            summary = endpoint.summary(id);
+        } while (summary.getStatus() == 503 && System.nanoTime() < deadline);
+
+        assertEquals(200, summary.getStatus());
+        JfrSummary body = (JfrSummary) summary.getBody();
+        assertTrue(body.cpuMethods().size() <= 10);
+        assertTrue(body.applicationCpuMethods().size() <= 10);
+
+        WebEndpointResponse<Resource> file = endpoint.download(id, "download");
+        assertEquals(200, file.getStatus());
+        assertTrue(Files.size(file.getBody().getFile().toPath()) > 0);
+        assertEquals(404, endpoint.download(id, "other").getStatus());
+        assertEquals(404, endpoint.summary(id + 1000).getStatus());
+    }
+
+    @Test
+    void start_BeyondMaxRecordings_ShouldDeleteOldest() throws Exception {
+        JfrEndpoint endpoint = endpoint(1);
+
+        long first = ((JfrEndpoint.RecordingInfo) endpoint.start("default", 1).getBody()).id();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (endpoint.summary(first).getStatus() == 503 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        Path firstFile = directory.resolve("recording-" + first + ".jfr");
+        assertTrue(Files.exists(firstFile));
+
+        assertEquals(200, endpoint.start("default", 1).getStatus());
+
+        assertFalse(Files.exists(firstFile));
+        assertEquals(1, endpoint.recordings().size());
+        assertEquals(404, endpoint.summary(first).getStatus());
+    }
+
+    private JfrEndpoint endpoint(int maxRecordings) {
+        return new JfrEndpoint(directory.toString(), Duration.ofMinutes(1), maxRecordings, "org.example.userservice", 10);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.userservice.config.IdGeneratorConfig;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.sharding.UserShards;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+// Bytes allocated per read, entity + mapping (the previous read path) against constructor-expression projections.
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({IdGeneratorConfig.class, UserShards.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserReadPathBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int WARMUP = 2_000;
+    private static final int SINGLE_ITERATIONS = 20_000;
+    private static final int LIST_ITERATIONS = 200;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareReadPaths() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("User " + i, "user" + i + "@example.com", i % 90));
+        }
+        long[] ids = userRepository.saveAll(users).stream().mapToLong(User::getId).toArray();
+
+        try {
+            report("single, entity (L2 miss)", SINGLE_ITERATIONS, i -> {
+                long id = ids[i % USERS];
+                entityManagerFactory.getCache().evict(User.class, id);
+                return readOnly.execute(status -> userRepository.findById(id).map(this::toResponse).orElseThrow());
+            });
+            report("single, entity (L2 hit)", SINGLE_ITERATIONS, i ->
+                    readOnly.execute(status -> userRepository.findById(ids[i % USERS]).map(this::toResponse).orElseThrow()));
+            report("single, projection", SINGLE_ITERATIONS, i ->
+                    readOnly.execute(status -> userRepository.findResponseById(ids[i % USERS]).orElseThrow()));
+
+            report("list, entity", LIST_ITERATIONS, i ->
+                    readOnly.execute(status -> userRepository.findAll().stream().map(this::toResponse).collect(Collectors.toList())));
+            report("list, projection", LIST_ITERATIONS, i ->
+                    readOnly.execute(status -> userRepository.findAllResponses()));
+        } finally {
+            userRepository.deleteAllInBatch();
+        }
+    }
+
+    private void report(String name, int iterations, LongFunction<Object> read) {
+        for (int i = 0; i < Math.min(WARMUP, iterations); i++) {
+            read.apply(i);
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            read.apply(i);
+        }
+        long nanos = System.nanoTime() - started;
+        allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+
+        System.out.printf("%-26s %10d bytes/read  %8d us/read%n",
+                name, allocated / iterations, nanos / iterations / 1_000);
+    }
+
+    // the mapping UserServiceImpl applies to entities
+    private UserResponse toResponse(User user) {
+        return new UserResponse(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt());
+    }
+}
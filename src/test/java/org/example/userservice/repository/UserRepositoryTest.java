@@ -0,0 +1,132 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.userservice.config.IdGeneratorConfig;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.sharding.UserShards;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({IdGeneratorConfig.class, UserShards.class})
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void softDeleteById_ShouldHideUserAndReturnEmail() {
+        User user = userRepository.save(new User("John Doe", "john@example.com", 30));
+        entityManager.flush();
+
+        Optional<String> email = userRepository.softDeleteById(user.getId());
+        entityManager.clear();
+
+        assertEquals(Optional.of("john@example.com"), email);
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+        assertFalse(userRepository.existsByEmail("john@example.com"));
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void softDeleteById_WhenAlreadyDeletedOrMissing_ShouldReturnEmpty() {
+        User user = userRepository.save(new User("John Doe", "john@example.com", 30));
+        entityManager.flush();
+        userRepository.softDeleteById(user.getId());
+
+        assertTrue(userRepository.softDeleteById(user.getId()).isEmpty());
+        assertTrue(userRepository.softDeleteById(999L).isEmpty());
+    }
+
+    @Test
+    void purgeSoftDeleted_ShouldRemoveOnlyExpiredRowsInBatches() {
+        for (int i = 0; i < 5; i++) {
+            User user = userRepository.save(new User("User " + i, "user" + i + "@example.com", 30));
+            entityManager.flush();
+            userRepository.softDeleteById(user.getId());
+        }
+        userRepository.save(new User("Live", "live@example.com", 30));
+        entityManager.flush();
+
+        LocalDateTime cutoff = LocalDateTime.now().plusSeconds(1);
+        assertEquals(3, userRepository.purgeSoftDeleted(cutoff, 3));
+        assertEquals(2, userRepository.purgeSoftDeleted(cutoff, 3));
+        assertEquals(0, userRepository.purgeSoftDeleted(cutoff, 3));
+        entityManager.clear();
+
+        assertEquals(1, userRepository.count());
+        assertEquals(0, ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM users WHERE deleted_at IS NOT NULL")
+                .getSingleResult()).intValue());
+    }
+
+    @Test
+    void emailLookups_ShouldIgnoreCaseAndSurroundingWhitespace() {
+        User user = userRepository.save(new User("John Doe", "John.Doe@Example.com", 30));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals("john.doe@example.com", user.getEmailNormalized());
+        User found = userRepository.findByEmail(" JOHN.DOE@example.COM ").orElseThrow();
+        assertEquals(user.getId(), found.getId());
+        assertEquals("John.Doe@Example.com", found.getEmail());
+        assertTrue(userRepository.existsByEmail("john.doe@example.com"));
+        assertFalse(userRepository.existsByEmailAndIdNot("john.doe@example.com", user.getId()));
+        assertEquals(1, userRepository.findByEmailIn(List.of("john.doe@example.com")).size());
+    }
+
+    @Test
+    void save_WithEmailDifferingOnlyInCase_ShouldViolateUniqueness() {
+        userRepository.save(new User("John Doe", "john@example.com", 30));
+        entityManager.flush();
+
+        // ids are assigned before insert, so save() alone only queues the INSERT
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User("Johnny", "JOHN@example.com", 31)));
+    }
+
+    @Test
+    void findResponsesCreatedBetween_ShouldApplyOnlyTheGivenBounds() {
+        User december = createdAt("December", LocalDateTime.of(2025, 12, 31, 23, 59));
+        User january = createdAt("January", LocalDateTime.of(2026, 1, 1, 0, 0));
+        User february = createdAt("February", LocalDateTime.of(2026, 2, 14, 12, 0));
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+
+        assertEquals(List.of(january.getId()), ids(userRepository.findResponsesCreatedBetween(from, to)));
+        assertEquals(List.of(january.getId(), february.getId()), ids(userRepository.findResponsesCreatedBetween(from, null)));
+        assertEquals(List.of(december.getId(), january.getId()), ids(userRepository.findResponsesCreatedBetween(null, to)));
+        assertEquals(3, userRepository.findResponsesCreatedBetween(null, null).size());
+    }
+
+    private User createdAt(String name, LocalDateTime createdAt) {
+        User user = userRepository.save(new User(name, name.toLowerCase() + "@example.com", 30));
+        entityManager.flush();
+        // created_at is set on insert and not updatable through the entity
+        entityManager.createNativeQuery("UPDATE users SET created_at = :createdAt WHERE id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", user.getId())
+                .executeUpdate();
+        entityManager.clear();
+        return user;
+    }
+
+    private static List<Long> ids(List<UserResponse> users) {
+        return users.stream().map(UserResponse::getId).collect(Collectors.toList());
+    }
+}
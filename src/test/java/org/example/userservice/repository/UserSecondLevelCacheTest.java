@@ -0,0 +1,174 @@
+package org.example.userservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.userservice.config.IdGeneratorConfig;
+import org.example.userservice.model.User;
+import org.example.userservice.sharding.UserShards;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({IdGeneratorConfig.class, UserShards.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createNativeQuery("DELETE FROM users").executeUpdate());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findById_RepeatedReads_ShouldNotExecuteSql() {
+        User user = inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        inTransaction(() -> userRepository.findById(user.getId()));
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("John Doe", inTransaction(() -> userRepository.findById(user.getId())).orElseThrow().getName());
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getDomainDataRegionStatistics("users").getHitCount());
+    }
+
+    @Test
+    void findByEmail_RepeatedReads_ShouldResolveThroughNaturalIdCache() {
+        User user = inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        inTransaction(() -> userRepository.findByEmail("john@example.com"));
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(user.getId(), inTransaction(() -> userRepository.findByEmail("john@example.com")).orElseThrow().getId());
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getNaturalIdCacheHitCount());
+    }
+
+    @Test
+    void existsByEmail_ShouldBeCachedUntilUsersTableChanges() {
+        inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        assertFalse(inTransaction(() -> userRepository.existsByEmail("jane@example.com")));
+        statistics.clear();
+
+        assertFalse(inTransaction(() -> userRepository.existsByEmail("jane@example.com")));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        inTransaction(() -> userRepository.save(new User("Jane Smith", "jane@example.com", 25)));
+
+        assertTrue(inTransaction(() -> userRepository.existsByEmail("jane@example.com")));
+    }
+
+    @Test
+    void updateEmail_ShouldMoveNaturalIdMapping() {
+        User user = inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        inTransaction(() -> userRepository.findByEmail("john@example.com"));
+
+        inTransaction(() -> {
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setEmail("john.updated@example.com");
+            return userRepository.save(managed);
+        });
+
+        assertEquals(Optional.empty(), inTransaction(() -> userRepository.findByEmail("john@example.com")));
+        assertEquals(user.getId(), inTransaction(() -> userRepository.findByEmail("john.updated@example.com")).orElseThrow().getId());
+    }
+
+    @Test
+    void findByEmail_WhenCachedResolutionIsStale_ShouldResolveAgain() {
+        User john = inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        inTransaction(() -> userRepository.findByEmail("john@example.com"));
+
+        // another instance renames John and gives his email to a new user; only the entity cache hears about it
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("UPDATE users SET email = ?, email_normalized = ? WHERE id = ?",
+                "john.new@example.com", "john.new@example.com", john.getId());
+        jdbcTemplate.update("INSERT INTO users (id, name, email, email_normalized, age, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                john.getId() + 1, "Jane Smith", "john@example.com", "john@example.com", 25, LocalDateTime.now());
+        entityManagerFactory.getCache().evict(User.class, john.getId());
+
+        assertEquals(john.getId() + 1, inTransaction(() -> userRepository.findByEmail("john@example.com")).orElseThrow().getId());
+        assertEquals(john.getId(), inTransaction(() -> userRepository.findByEmail("john.new@example.com")).orElseThrow().getId());
+    }
+
+    @Test
+    void softDeleteById_ShouldInvalidateCachedReads() {
+        User user = inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        inTransaction(() -> userRepository.findById(user.getId()));
+        inTransaction(() -> userRepository.findByEmail("john@example.com"));
+        assertTrue(inTransaction(() -> userRepository.existsByEmail("john@example.com")));
+
+        inTransaction(() -> userRepository.softDeleteById(user.getId()));
+
+        assertEquals(Optional.empty(), inTransaction(() -> userRepository.findById(user.getId())));
+        assertEquals(Optional.empty(), inTransaction(() -> userRepository.findByEmail("john@example.com")));
+        assertFalse(inTransaction(() -> userRepository.existsByEmail("john@example.com")));
+    }
+
+    @Test
+    void softDeleteById_ShouldKeepOtherUsersCached() {
+        User john = inTransaction(() -> userRepository.save(new User("John Doe", "john@example.com", 30)));
+        User jane = inTransaction(() -> userRepository.save(new User("Jane Smith", "jane@example.com", 25)));
+        inTransaction(() -> userRepository.findById(jane.getId()));
+        inTransaction(() -> userRepository.findByEmail("jane@example.com"));
+
+        inTransaction(() -> userRepository.softDeleteById(john.getId()));
+        statistics.clear();
+
+        assertEquals("Jane Smith", inTransaction(() -> userRepository.findById(jane.getId())).orElseThrow().getName());
+        assertEquals(jane.getId(), inTransaction(() -> userRepository.findByEmail("jane@example.com")).orElseThrow().getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+}
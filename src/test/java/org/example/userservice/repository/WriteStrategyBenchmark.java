@@ -0,0 +1,405 @@
+package org.example.userservice.repository;
+
+import org.example.userservice.UserServiceApplication;
+import org.example.userservice.dto.UserRequest;
+import org.example.userservice.model.User;
+import org.example.userservice.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Inserts, updates and deletes N users through each write path and reports rows/s, p99 batch time and bytes allocated
+// per row. Runs on H2, and on PostgreSQL in a throwaway Flyway-migrated schema when -Dtest.postgres.url is given.
+// Kafka is stubbed out, so the service path is measured without a broker.
+@Tag("benchmark")
+class WriteStrategyBenchmark {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 20_000);
+    private static final int WARMUP_USERS = 2_000;
+    private static final int BATCH = 500;
+    private static final String POSTGRES_URL = System.getProperty("test.postgres.url");
+
+    private static final String INSERT =
+            "INSERT INTO users (name, email, email_normalized, age, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareWriteStrategies() throws Exception {
+        try (ConfigurableApplicationContext context = start(h2Args())) {
+            compare("h2", context, false);
+        }
+        if (POSTGRES_URL == null) {
+            System.out.println("test.postgres.url is not set, skipping PostgreSQL");
+            return;
+        }
+        String schema = "write_benchmark_" + System.nanoTime();
+        try (ConfigurableApplicationContext context = start(postgresArgs(schema))) {
+            compare("postgresql", context, true);
+        } finally {
+            new JdbcTemplate(new DriverManagerDataSource(POSTGRES_URL,
+                    System.getProperty("test.postgres.username", "postgres"),
+                    System.getProperty("test.postgres.password", "")))
+                    .execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    private void compare(String database, ConfigurableApplicationContext context, boolean postgres) throws Exception {
+        UserService userService = context.getBean(UserService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Map<String, Strategy> strategies = new LinkedHashMap<>();
+        strategies.put("service", new ServiceStrategy(userService));
+        strategies.put("saveAll", new SaveAllStrategy(userRepository, transaction));
+        strategies.put("batchUpdate", new BatchUpdateStrategy(jdbcTemplate, transaction));
+        strategies.put("multi-values", new MultiValuesStrategy(jdbcTemplate, transaction, postgres));
+        if (postgres) {
+            strategies.put("copy", new CopyStrategy(jdbcTemplate, transaction));
+        }
+
+        System.out.printf("%-10s %-12s %-6s %12s %14s %12s%n", "database", "strategy", "op", "rows/s", "p99 ms/batch", "bytes/row");
+        for (Map.Entry<String, Strategy> strategy : strategies.entrySet()) {
+            run(database, strategy.getKey(), strategy.getValue(), jdbcTemplate, WARMUP_USERS, false);
+            run(database, strategy.getKey(), strategy.getValue(), jdbcTemplate, USERS, true);
+        }
+    }
+
+    private void run(String database, String name, Strategy strategy, JdbcTemplate jdbcTemplate,
+                     int count, boolean print) throws Exception {
+        String prefix = name.replace("-", "") + System.nanoTime() + "-";
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User("User " + i, prefix + i + "@example.com", i % 90));
+        }
+        Result insert = measure(users, strategy::insert);
+
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE email_normalized LIKE ? ORDER BY id", Long.class, prefix + "%");
+        List<User> updates = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            User user = new User("Updated " + i, prefix + i + "@example.com", (i + 1) % 90);
+            user.setId(ids.get(i));
+            updates.add(user);
+        }
+        Result update = measure(updates, strategy::update);
+        Result delete = measure(ids, strategy::delete);
+
+        if (print) {
+            insert.print(database, name, "insert");
+            update.print(database, name, "update");
+            delete.print(database, name, "delete");
+        }
+    }
+
+    private <T> Result measure(List<T> rows, BatchWriter<T> writer) throws Exception {
+        long[] batchNanos = new long[(rows.size() + BATCH - 1) / BATCH];
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int batch = 0; batch < batchNanos.length; batch++) {
+            long batchStarted = System.nanoTime();
+            writer.write(rows.subList(batch * BATCH, Math.min(rows.size(), (batch + 1) * BATCH)));
+            batchNanos[batch] = System.nanoTime() - batchStarted;
+        }
+        long nanos = System.nanoTime() - started;
+        allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+        Arrays.sort(batchNanos);
+        long p99 = batchNanos.length == 0 ? 0 : batchNanos[(int) Math.ceil(batchNanos.length * 0.99) - 1];
+        return new Result(rows.size(), nanos, p99, allocated);
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new KafkaStub()))
+                .run(args);
+    }
+
+    private static String[] h2Args() {
+        return commonArgs(
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:write-benchmark;DB_CLOSE_DELAY=-1");
+    }
+
+    private static String[] postgresArgs(String schema) {
+        return commonArgs(
+                "--spring.datasource.url=" + POSTGRES_URL + (POSTGRES_URL.contains("?") ? "&" : "?") + "currentSchema=" + schema,
+                "--spring.datasource.username=" + System.getProperty("test.postgres.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("test.postgres.password", ""),
+                "--spring.flyway.enabled=true",
+                "--spring.flyway.schemas=" + schema,
+                "--spring.flyway.locations=classpath:db/migration",
+                "--spring.jpa.hibernate.ddl-auto=none");
+    }
+
+    private static String[] commonArgs(String... args) {
+        List<String> all = new ArrayList<>(List.of(args));
+        Collections.addAll(all,
+                "--app.grpc.enabled=false",
+                "--app.cache-invalidation.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.org.example.userservice=WARN");
+        return all.toArray(String[]::new);
+    }
+
+    private record Result(int rows, long nanos, long p99Nanos, long allocatedBytes) {
+
+        void print(String database, String strategy, String op) {
+            System.out.printf("%-10s %-12s %-6s %12d %14.2f %12d%n", database, strategy, op,
+                    rows * 1_000_000_000L / Math.max(1, nanos), p99Nanos / 1_000_000.0, allocatedBytes / Math.max(1, rows));
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+
+        void write(List<T> batch) throws Exception;
+    }
+
+    private interface Strategy {
+
+        void insert(List<User> users) throws Exception;
+
+        // users carry the id and the new name and age
+        void update(List<User> users) throws Exception;
+
+        void delete(List<Long> ids) throws Exception;
+    }
+
+    // one transaction per user, with everything UserServiceImpl does around the write
+    private record ServiceStrategy(UserService userService) implements Strategy {
+
+        @Override
+        public void insert(List<User> users) {
+            for (User user : users) {
+                userService.createUser(new UserRequest(user.getName(), user.getEmail(), user.getAge()));
+            }
+        }
+
+        @Override
+        public void update(List<User> users) {
+            for (User user : users) {
+                userService.updateUser(user.getId(), new UserRequest(user.getName(), user.getEmail(), user.getAge()));
+            }
+        }
+
+        @Override
+        public void delete(List<Long> ids) {
+            ids.forEach(userService::deleteUser);
+        }
+    }
+
+    // one transaction per batch; Hibernate groups the statements into JDBC batches of hibernate.jdbc.batch_size
+    private record SaveAllStrategy(UserRepository userRepository, TransactionTemplate transaction) implements Strategy {
+
+        @Override
+        public void insert(List<User> users) {
+            transaction.executeWithoutResult(status -> userRepository.saveAll(users));
+        }
+
+        @Override
+        public void update(List<User> users) {
+            Map<Long, User> changes = users.stream().collect(Collectors.toMap(User::getId, user -> user));
+            transaction.executeWithoutResult(status -> {
+                List<User> managed = userRepository.findAllById(changes.keySet());
+                for (User user : managed) {
+                    user.setName(changes.get(user.getId()).getName());
+                    user.setAge(changes.get(user.getId()).getAge());
+                }
+                userRepository.saveAll(managed);
+            });
+        }
+
+        @Override
+        public void delete(List<Long> ids) {
+            transaction.executeWithoutResult(status -> userRepository.deleteAllById(ids));
+        }
+    }
+
+    private record BatchUpdateStrategy(JdbcTemplate jdbcTemplate, TransactionTemplate transaction) implements Strategy {
+
+        @Override
+        public void insert(List<User> users) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    User user = users.get(i);
+                    statement.setString(1, user.getName());
+                    statement.setString(2, user.getEmail());
+                    statement.setString(3, user.getEmailNormalized());
+                    statement.setInt(4, user.getAge());
+                    statement.setTimestamp(5, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return users.size();
+                }
+            }));
+        }
+
+        @Override
+        public void update(List<User> users) {
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "UPDATE users SET name = ?, age = ? WHERE id = ?",
+                    users.stream().map(user -> new Object[]{user.getName(), user.getAge(), user.getId()}).toList()));
+        }
+
+        @Override
+        public void delete(List<Long> ids) {
+            transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "DELETE FROM users WHERE id = ?", ids.stream().map(id -> new Object[]{id}).toList()));
+        }
+    }
+
+    // one statement per batch; updates join against a VALUES list (MERGE on H2, UPDATE ... FROM on PostgreSQL)
+    private record MultiValuesStrategy(JdbcTemplate jdbcTemplate, TransactionTemplate transaction, boolean postgres)
+            implements Strategy {
+
+        @Override
+        public void insert(List<User> users) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            String sql = "INSERT INTO users (name, email, email_normalized, age, created_at) VALUES "
+                    + String.join(", ", Collections.nCopies(users.size(), "(?, ?, ?, ?, ?)"));
+            List<Object> args = new ArrayList<>(users.size() * 5);
+            for (User user : users) {
+                Collections.addAll(args, user.getName(), user.getEmail(), user.getEmailNormalized(), user.getAge(), now);
+            }
+            transaction.executeWithoutResult(status -> jdbcTemplate.update(sql, args.toArray()));
+        }
+
+        @Override
+        public void update(List<User> users) {
+            String values = String.join(", ", Collections.nCopies(users.size(),
+                    "(CAST(? AS BIGINT), CAST(? AS VARCHAR(100)), CAST(? AS INTEGER))"));
+            String sql = postgres
+                    ? "UPDATE users u SET name = v.name, age = v.age FROM (VALUES " + values + ") AS v (id, name, age) "
+                    + "WHERE u.id = v.id"
+                    : "MERGE INTO users u USING (VALUES " + values + ") AS v (id, name, age) ON u.id = v.id "
+                    + "WHEN MATCHED THEN UPDATE SET name = v.name, age = v.age";
+            List<Object> args = new ArrayList<>(users.size() * 3);
+            for (User user : users) {
+                Collections.addAll(args, user.getId(), user.getName(), user.getAge());
+            }
+            transaction.executeWithoutResult(status -> jdbcTemplate.update(sql, args.toArray()));
+        }
+
+        @Override
+        public void delete(List<Long> ids) {
+            String sql = "DELETE FROM users WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+            transaction.executeWithoutResult(status -> jdbcTemplate.update(sql, ids.toArray()));
+        }
+    }
+
+    // PostgreSQL COPY: inserts stream straight into users, updates and deletes go through a temporary table
+    private record CopyStrategy(JdbcTemplate jdbcTemplate, TransactionTemplate transaction) implements Strategy {
+
+        @Override
+        public void insert(List<User> users) {
+            String now = LocalDateTime.now().toString();
+            StringBuilder csv = new StringBuilder(users.size() * 80);
+            for (User user : users) {
+                csv.append(quote(user.getName())).append(',')
+                        .append(quote(user.getEmail())).append(',')
+                        .append(quote(user.getEmailNormalized())).append(',')
+                        .append(user.getAge()).append(',')
+                        .append(now).append('\n');
+            }
+            copy("COPY users (name, email, email_normalized, age, created_at) FROM STDIN WITH (FORMAT csv)", csv, null);
+        }
+
+        @Override
+        public void update(List<User> users) {
+            StringBuilder csv = new StringBuilder(users.size() * 40);
+            for (User user : users) {
+                csv.append(user.getId()).append(',').append(quote(user.getName())).append(',').append(user.getAge()).append('\n');
+            }
+            copy("COPY user_stage (id, name, age) FROM STDIN WITH (FORMAT csv)", csv,
+                    "CREATE TEMPORARY TABLE user_stage (id BIGINT, name VARCHAR(100), age INTEGER) ON COMMIT DROP",
+                    "UPDATE users u SET name = s.name, age = s.age FROM user_stage s WHERE u.id = s.id");
+        }
+
+        @Override
+        public void delete(List<Long> ids) {
+            StringBuilder csv = new StringBuilder(ids.size() * 20);
+            ids.forEach(id -> csv.append(id).append('\n'));
+            copy("COPY user_stage (id) FROM STDIN WITH (FORMAT csv)", csv,
+                    "CREATE TEMPORARY TABLE user_stage (id BIGINT) ON COMMIT DROP",
+                    "DELETE FROM users u USING user_stage s WHERE u.id = s.id");
+        }
+
+        private void copy(String copySql, CharSequence csv, String before, String... after) {
+            transaction.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    if (before != null) {
+                        statement.execute(before);
+                    }
+                    CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+                    byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                    copyIn.endCopy();
+                    for (String sql : after) {
+                        statement.execute(sql);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        private static String quote(String value) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    // swaps the real producer for one that accepts every send, so no broker is needed
+    private static final class KafkaStub implements BeanPostProcessor {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof KafkaTemplate)) {
+                return bean;
+            }
+            KafkaTemplate<String, Object> stub = mock(KafkaTemplate.class);
+            when(stub.send(anyString(), any(), any())).thenAnswer(invocation -> new CompletableFuture<>());
+            return stub;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.userservice.service;
+
+import org.example.userservice.cache.StaleUserStore;
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.cache.UserSnapshotStore;
+import org.example.userservice.config.IdGeneratorConfig;
+import org.example.userservice.dto.BulkOperation;
+import org.example.userservice.dto.BulkResult;
+import org.example.userservice.dto.UserRequest;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.event.UserChangeFeed;
+import org.example.userservice.event.UserEvent;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.sharding.UserShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "app.bulk.chunk-size=2")
+@ActiveProfiles("test")
+@Import({UserBulkService.class, UserShards.class, IdGeneratorConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBulkServiceTest {
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private UserEventPublisher userEventPublisher;
+
+    @MockBean
+    private UserSnapshotStore userSnapshotStore;
+
+    @MockBean
+    private UserChangeFeed userChangeFeed;
+
+    @MockBean
+    private UserResponseCache userResponseCache;
+
+    @MockBean
+    private StaleUserStore staleUserStore;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_ShouldApplyUpdatesAndDeletesAndReportEachItem() {
+        User john = userRepository.save(new User("John Doe", "john@example.com", 30));
+        User jane = userRepository.save(new User("Jane Smith", "jane@example.com", 25));
+        User bob = userRepository.save(new User("Bob Brown", "bob@example.com", 40));
+
+        List<BulkResult> results = userBulkService.execute(List.of(
+                BulkOperation.update(john.getId(), new UserRequest("John Updated", "John.New@example.com", 31)),
+                BulkOperation.delete(jane.getId()),
+                BulkOperation.update(bob.getId(), new UserRequest("Bob Brown", "JOHN.NEW@example.com", 40)),
+                BulkOperation.delete(999L),
+                BulkOperation.update(john.getId(), new UserRequest("Again", "again@example.com", 1)),
+                new BulkOperation(BulkOperation.Type.UPDATE, bob.getId() + 100, null)));
+
+        assertEquals(BulkResult.Status.UPDATED, results.get(0).getStatus());
+        assertEquals(BulkResult.Status.DELETED, results.get(1).getStatus());
+        assertEquals(BulkResult.Status.DUPLICATE_EMAIL, results.get(2).getStatus());
+        assertEquals(BulkResult.Status.NOT_FOUND, results.get(3).getStatus());
+        assertEquals(BulkResult.Status.INVALID, results.get(4).getStatus());
+        assertEquals(BulkResult.Status.INVALID, results.get(5).getStatus());
+
+        User updated = userRepository.findById(john.getId()).orElseThrow();
+        assertEquals("John Updated", updated.getName());
+        assertEquals("John.New@example.com", updated.getEmail());
+        assertTrue(userRepository.findById(jane.getId()).isEmpty());
+        assertEquals("bob@example.com", userRepository.findById(bob.getId()).orElseThrow().getEmail());
+
+        ArgumentCaptor<List<UserEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(userEventPublisher).publishUserEvents(events.capture());
+        assertEquals(2, events.getValue().size());
+        assertEquals("DELETED", events.getValue().get(0).getEventType());
+        assertEquals("UPDATED", events.getValue().get(1).getEventType());
+        assertEquals(john.getId(), events.getValue().get(1).getUserId());
+
+        verify(staleUserStore).remove(jane.getId());
+        ArgumentCaptor<UserResponse> stale = ArgumentCaptor.forClass(UserResponse.class);
+        verify(staleUserStore).putAfterCommit(stale.capture());
+        assertEquals(john.getId(), stale.getValue().getId());
+        assertEquals("John.New@example.com", stale.getValue().getEmail());
+    }
+
+    @Test
+    void execute_ShouldAllowTakingOverEmailOfUserDeletedInSameChunk() {
+        User john = userRepository.save(new User("John Doe", "john@example.com", 30));
+        User jane = userRepository.save(new User("Jane Smith", "jane@example.com", 25));
+
+        List<BulkResult> results = userBulkService.execute(List.of(
+                BulkOperation.delete(john.getId()),
+                BulkOperation.update(jane.getId(), new UserRequest("Jane Smith", "john@example.com", 25))));
+
+        assertTrue(results.stream().allMatch(BulkResult::isSuccess));
+        assertEquals("john@example.com", userRepository.findById(jane.getId()).orElseThrow().getEmail());
+    }
+}
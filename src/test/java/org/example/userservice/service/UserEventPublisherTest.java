@@ -0,0 +1,104 @@
+package org.example.userservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.example.userservice.event.UserEvent;
+import org.example.userservice.event.UserEventSpillQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserEventPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private UserEventSpillQueue spillQueue;
+    private UserEventPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        spillQueue = new UserEventSpillQueue(new SimpleMeterRegistry(), true, directory.toString(), 65536, 4);
+        spillQueue.open();
+        publisher = new UserEventPublisher(kafkaTemplate, spillQueue);
+        ReflectionTestUtils.setField(publisher, "userEventsTopic", "user-events");
+        ReflectionTestUtils.setField(publisher, "latencyThresholdMs", 1000L);
+        ReflectionTestUtils.setField(publisher, "bufferThreshold", 0.8);
+        ReflectionTestUtils.setField(publisher, "drainBatchSize", 10);
+        ReflectionTestUtils.setField(publisher, "drainTimeoutMs", 1000L);
+    }
+
+    @Test
+    void publishUserEvent_WhenSendFails_ShouldSpillAndDrainInOrderLater() {
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("Topic user-events not present in metadata after 250 ms."));
+
+        publisher.publishUserEvent(new UserEvent("CREATED", "john@example.com", 1L));
+        publisher.publishUserEvent(new UserEvent("DELETED", "john@example.com", 1L));
+
+        assertTrue(publisher.isSpilling());
+        assertEquals(2, spillQueue.getBacklog());
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+
+        doReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .when(kafkaTemplate).send(anyString(), anyString(), any());
+        publisher.drainSpilled();
+
+        assertFalse(publisher.isSpilling());
+        assertEquals(0, spillQueue.getBacklog());
+        verify(kafkaTemplate, times(3)).send(eq("user-events"), eq("john@example.com"), any());
+    }
+
+    @Test
+    void publishUserEvent_WhenProducerBufferIsNearlyFull_ShouldSpillWithoutSending() {
+        Map<MetricName, Metric> metrics = Map.of(
+                new MetricName("buffer-available-bytes", "producer-metrics", "", Map.of()), gauge(100.0),
+                new MetricName("buffer-total-bytes", "producer-metrics", "", Map.of()), gauge(1000.0));
+        doReturn(metrics).when(kafkaTemplate).metrics();
+
+        publisher.publishUserEvent(new UserEvent("CREATED", "john@example.com", 1L));
+
+        assertTrue(publisher.isSpilling());
+        assertEquals(1, spillQueue.getBacklog());
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+    }
+
+    @Test
+    void drainSpilled_WhenBrokerStillFailing_ShouldKeepBacklog() {
+        spillQueue.append(new UserEvent("CREATED", "john@example.com", 1L));
+        when(kafkaTemplate.send(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        publisher.drainSpilled();
+
+        assertEquals(1, spillQueue.getBacklog());
+    }
+
+    private static Metric gauge(double value) {
+        Metric metric = mock(Metric.class);
+        when(metric.metricValue()).thenReturn(value);
+        return metric;
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.userservice.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.example.userservice.cache.UserSnapshotStore;
+import org.example.userservice.config.IdGeneratorConfig;
+import org.example.userservice.dto.ImportJobResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.example.userservice.sharding.UserShards;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The PostgreSQL case runs against -Dtest.postgres.url (with test.postgres.username/password) in a throwaway
+// schema migrated by Flyway, and is skipped when no database is given.
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({IdGeneratorConfig.class, UserShards.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTest {
+
+    private static final String POSTGRES_URL = System.getProperty("test.postgres.url");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    Path directory;
+
+    private UserSnapshotStore userSnapshotStore;
+    private UserImportService userImportService;
+    private SingleConnectionDataSource postgres;
+    private String schema;
+
+    @BeforeEach
+    void setUp() {
+        userSnapshotStore = mock(UserSnapshotStore.class);
+        userImportService = new UserImportService(dataSource, entityManagerFactory,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                userSnapshotStore, new UserShards(false, List.of()), directory.toString(), 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+        if (postgres != null) {
+            new JdbcTemplate(postgres).execute("DROP SCHEMA " + schema + " CASCADE");
+            postgres.destroy();
+        }
+    }
+
+    @Test
+    void importCsv_ShouldInsertValidRowsAndReportRejectedOnes() throws Exception {
+        userRepository.save(new User("Existing", "existing@example.com", 50));
+        String csv = "name,email,age\n"
+                + "John Doe,john@example.com,30\n"
+                + "\"Smith, Jane\",Jane@Example.com,\n"
+                + "Bad Email,not-an-email,20\n"
+                + "Old,old@example.com,200\n"
+                + "Again,John@Example.com,31\n"
+                + "Taken,existing@example.com,40\n"
+                + "Short,short@example.com\n"
+                + "Bob,bob@example.com,abc\n";
+
+        UserImportJob job = userImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        ImportJobResponse response = job.toResponse();
+
+        assertEquals("COMPLETED", response.getState());
+        assertEquals("batch", response.getLoader());
+        assertEquals(8, response.getRowsRead());
+        assertEquals(4, response.getRowsStaged());
+        assertEquals(2, response.getRowsInserted());
+        assertEquals(6, response.getRowsRejected());
+
+        assertEquals("Smith, Jane", userRepository.findByEmail("jane@example.com").orElseThrow().getName());
+        assertEquals("Jane@Example.com", userRepository.findByEmail("jane@example.com").orElseThrow().getEmail());
+        assertNull(userRepository.findByEmail("jane@example.com").orElseThrow().getAge());
+        assertEquals(30, userRepository.findByEmail("john@example.com").orElseThrow().getAge());
+        assertEquals(3, userRepository.count());
+
+        List<String> rejected = Files.readAllLines(job.getRejectedRowsFile());
+        assertEquals(7, rejected.size());
+        assertTrue(rejected.get(0).startsWith("line,reason"));
+        assertTrue(rejected.stream().anyMatch(line -> line.startsWith("6,\"duplicate email in file\"")));
+        assertTrue(rejected.stream().anyMatch(line -> line.startsWith("7,\"email already exists\"")));
+        verify(userSnapshotStore).load();
+    }
+
+    @Test
+    void importCsv_WithEmailOfSoftDeletedUser_ShouldInsertIt() {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+        jdbcTemplate.update("INSERT INTO users (name, email, email_normalized, age, created_at, deleted_at) "
+                + "VALUES ('Gone', 'john@example.com', 'john@example.com', 30, now(), now())");
+        EntityManagerFactory postgresEntityManagers = mock(EntityManagerFactory.class);
+        when(postgresEntityManagers.unwrap(SessionFactory.class)).thenReturn(mock(SessionFactory.class, RETURNS_DEEP_STUBS));
+        UserImportService postgresImport = new UserImportService(postgres, postgresEntityManagers,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                userSnapshotStore, new UserShards(false, List.of()), directory.toString(), 2, 10);
+
+        UserImportJob job = postgresImport.importCsv(new ByteArrayInputStream(
+                "name,email,age\nJohn Doe,John@example.com,31\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("COMPLETED", job.toResponse().getState());
+        assertEquals(1, job.toResponse().getRowsInserted());
+        assertEquals(0, job.toResponse().getRowsRejected());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email_normalized = 'john@example.com' AND deleted_at IS NULL", Integer.class));
+    }
+
+    @Test
+    void importCsv_WithoutRequiredColumns_ShouldFail() {
+        UserImportJob job = userImportService.importCsv(
+                new ByteArrayInputStream("first,last\nJohn,Doe\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(UserImportJob.State.FAILED, job.getState());
+        assertTrue(job.toResponse().getError().contains("name and email"));
+        assertEquals(1, userImportService.getJobs().size());
+    }
+
+    @Test
+    void parseLine_ShouldHandleQuotedFields() {
+        assertEquals(List.of("a", "b,c", "d\"e", ""), UserImportService.parseLine("a,\"b,c\",\"d\"\"e\","));
+    }
+
+    private JdbcTemplate migratePostgres() {
+        assumeTrue(POSTGRES_URL != null, "test.postgres.url is not set");
+        schema = "user_import_test_" + System.nanoTime();
+        postgres = new SingleConnectionDataSource(POSTGRES_URL,
+                System.getProperty("test.postgres.username", "postgres"),
+                System.getProperty("test.postgres.password", ""), true);
+        Flyway.configure()
+                .dataSource(postgres)
+                .schemas(schema)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.userservice.service;
+
+import org.example.userservice.sharding.ShardRoutingDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// The PostgreSQL cases run against -Dtest.postgres.url (with test.postgres.username/password) in a throwaway
+// schema migrated by Flyway, and are skipped when no database is given.
+class UserPartitionMaintainerTest {
+
+    private static final String POSTGRES_URL = System.getProperty("test.postgres.url");
+
+    private SingleConnectionDataSource postgres;
+    private String schema;
+
+    @AfterEach
+    void tearDown() {
+        if (postgres != null) {
+            new JdbcTemplate(postgres).execute("DROP SCHEMA " + schema + " CASCADE");
+            postgres.destroy();
+        }
+    }
+
+    @Test
+    void unpartitionedDatabase_ShouldBeLeftAlone() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:partition-maintainer;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, created_at TIMESTAMP NOT NULL)");
+
+        maintainer(h2, 3).createUpcomingPartitions();
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = 'PUBLIC' AND table_name LIKE 'USERS%'", Integer.class));
+    }
+
+    @Test
+    void createUpcomingPartitions_ShouldAddMissingMonthsOnce() throws SQLException {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+        UserPartitionMaintainer maintainer = maintainer(postgres, 6);
+        YearMonth current = YearMonth.now();
+
+        List<String> created;
+        try (Connection connection = postgres.getConnection()) {
+            created = maintainer.createUpcomingPartitions(connection, current);
+            assertEquals(List.of(), maintainer.createUpcomingPartitions(connection, current));
+        }
+
+        // the migration already covered three months ahead
+        assertEquals(List.of(UserPartitionMaintainer.partitionName(current.plusMonths(4)),
+                UserPartitionMaintainer.partitionName(current.plusMonths(5)),
+                UserPartitionMaintainer.partitionName(current.plusMonths(6))), created);
+        jdbcTemplate.update("INSERT INTO users (name, email, email_normalized, age, created_at) VALUES (?, ?, ?, ?, ?)",
+                "Later", "later@example.com", "later@example.com", 30,
+                Timestamp.valueOf(current.plusMonths(6).atDay(15).atStartOfDay()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + UserPartitionMaintainer.partitionName(current.plusMonths(6)), Integer.class));
+    }
+
+    @Test
+    void createdAtRange_ShouldBePrunedToOnePartitionAndUseBrin() {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+        YearMonth current = YearMonth.now();
+        for (int month = 0; month < 3; month++) {
+            for (int i = 0; i < 100; i++) {
+                String email = "user" + month + "-" + i + "@example.com";
+                jdbcTemplate.update("INSERT INTO users (name, email, email_normalized, age, created_at) VALUES (?, ?, ?, ?, ?)",
+                        "User", email, email, 30, Timestamp.valueOf(current.plusMonths(month).atDay(1).atTime(i % 24, 0)));
+            }
+        }
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("SET enable_seqscan = off");
+
+        // the statement UserRepositoryImpl#findResponsesCreatedBetween generates, with bound parameters
+        String plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT u.id, u.name, u.email, u.age, u.created_at FROM users u "
+                        + "WHERE u.deleted_at IS NULL AND u.created_at >= ? AND u.created_at < ? ORDER BY u.id",
+                String.class,
+                Timestamp.valueOf(current.plusMonths(1).atDay(1).atStartOfDay()),
+                Timestamp.valueOf(current.plusMonths(2).atDay(1).atStartOfDay()))
+                .stream().collect(Collectors.joining("\n"));
+
+        assertTrue(plan.contains(UserPartitionMaintainer.partitionName(current.plusMonths(1))), plan);
+        assertFalse(plan.contains(UserPartitionMaintainer.partitionName(current)), plan);
+        assertFalse(plan.contains(UserPartitionMaintainer.partitionName(current.plusMonths(2))), plan);
+        assertFalse(plan.contains("users_default"), plan);
+        assertTrue(plan.contains("Bitmap Index Scan on " + UserPartitionMaintainer.partitionName(current.plusMonths(1))
+                + "_created_at_idx"), plan);
+    }
+
+    @Test
+    void liveEmails_ShouldStayUniqueAcrossPartitions() {
+        JdbcTemplate jdbcTemplate = migratePostgres();
+        LocalDateTime now = LocalDateTime.now();
+        String insert = "INSERT INTO users (name, email, email_normalized, age, created_at) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.update(insert, "John", "john@example.com", "john@example.com", 30, Timestamp.valueOf(now));
+
+        assertThrows(DuplicateKeyException.class, () -> jdbcTemplate.update(insert,
+                "John", "John@example.com", "john@example.com", 30, Timestamp.valueOf(now.plusMonths(1))));
+
+        // soft-deleting releases the email for a new user
+        jdbcTemplate.update("UPDATE users SET deleted_at = ? WHERE email_normalized = ?", Timestamp.valueOf(now), "john@example.com");
+        jdbcTemplate.update(insert, "John", "john@example.com", "john@example.com", 30, Timestamp.valueOf(now.plusMonths(1)));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_emails", Integer.class));
+    }
+
+    private JdbcTemplate migratePostgres() {
+        assumeTrue(POSTGRES_URL != null, "test.postgres.url is not set");
+        schema = "partition_test_" + System.nanoTime();
+        postgres = new SingleConnectionDataSource(POSTGRES_URL,
+                System.getProperty("test.postgres.username", "postgres"),
+                System.getProperty("test.postgres.password", ""), true);
+        Flyway.configure()
+                .dataSource(postgres)
+                .schemas(schema)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        return jdbcTemplate;
+    }
+
+    private static UserPartitionMaintainer maintainer(DataSource dataSource, int monthsAhead) {
+        return new UserPartitionMaintainer(dataSource,
+                new StaticListableBeanFactory().getBeanProvider(ShardRoutingDataSource.class), true, monthsAhead, "5s");
+    }
+}
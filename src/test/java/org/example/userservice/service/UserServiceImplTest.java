@@ -1,11 +1,18 @@
 package org.example.userservice.service;
 
+import org.example.userservice.cache.StaleUserStore;
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.cache.UserSnapshotStore;
+import org.example.userservice.dto.StaleUserResponse;
 import org.example.userservice.dto.UserRequest;
 import org.example.userservice.dto.UserResponse;
+import org.example.userservice.event.UserChangeFeed;
 import org.example.userservice.exception.DuplicateEmailException;
+import org.example.userservice.exception.EmailShardMismatchException;
 import org.example.userservice.exception.ResourceNotFoundException;
 import org.example.userservice.model.User; // Добавьте этот импорт
 import org.example.userservice.repository.UserRepository;
+import org.example.userservice.sharding.UserShards;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -27,6 +34,24 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserEventPublisher userEventPublisher;
+
+    @Mock
+    private UserSnapshotStore userSnapshotStore;
+
+    @Mock
+    private UserChangeFeed userChangeFeed;
+
+    @Mock
+    private StaleUserStore staleUserStore;
+
+    @Mock
+    private UserResponseCache userResponseCache;
+
+    @Mock
+    private UserShards userShards;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -50,6 +75,10 @@ class UserServiceImplTest {
 
         verify(userRepository, times(1)).existsByEmail("john@example.com");
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userEventPublisher).publishUserEventAfterCommit(any());
+        verify(userEventPublisher, never()).publishUserEvent(any());
+        verify(staleUserStore).putAfterCommit(any());
+        verify(staleUserStore, never()).put(any());
     }
 
     @Test
@@ -64,6 +93,17 @@ class UserServiceImplTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void createUser_WithEmailDifferingOnlyInCase_ShouldThrowException() {
+        UserRequest userRequest = new UserRequest("John Doe", " John@Example.COM", 30);
+
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(true);
+
+        assertThrows(DuplicateEmailException.class, () -> userService.createUser(userRequest));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void getUserById_WithExistingId_ShouldReturnUser() {
         Long userId = 1L;
@@ -95,12 +135,10 @@ class UserServiceImplTest {
 
     @Test
     void getAllUsers_ShouldReturnAllUsers() {
-        User user1 = new User("John Doe", "john@example.com", 30);
-        user1.setId(1L);
-        User user2 = new User("Jane Smith", "jane@example.com", 25);
-        user2.setId(2L);
+        UserResponse user1 = new UserResponse(1L, "John Doe", "john@example.com", 30, null);
+        UserResponse user2 = new UserResponse(2L, "Jane Smith", "jane@example.com", 25, null);
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        when(userRepository.findAllResponses()).thenReturn(Arrays.asList(user1, user2));
 
         List<UserResponse> result = userService.getAllUsers();
 
@@ -109,7 +147,8 @@ class UserServiceImplTest {
         assertEquals("John Doe", result.get(0).getName());
         assertEquals("Jane Smith", result.get(1).getName());
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllResponses();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -158,6 +197,22 @@ class UserServiceImplTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void updateUser_WithEmailOnAnotherShard_ShouldRefuseWithoutSaving() {
+        Long userId = 1L;
+        User existingUser = new User("John Doe", "john@example.com", 30);
+        existingUser.setId(userId);
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+        when(userShards.shardOfEmail("other@example.com")).thenReturn(1);
+
+        assertThrows(EmailShardMismatchException.class,
+                () -> userService.updateUser(userId, new UserRequest("John Doe", "other@example.com", 30)));
+
+        verify(userRepository, never()).existsByEmailAndIdNot(any(), any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     void deleteUser_ShouldSuccessfullyDeleteUser() {
         Long userId = 1L;
@@ -210,4 +265,26 @@ class UserServiceImplTest {
 
         verify(userRepository, times(1)).findByEmail(email);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserByIdFallback_WithStaleEntry_ShouldServeStaleUser() {
+        UserResponse cached = new UserResponse(1L, "John Doe", "john@example.com", 30, LocalDateTime.now());
+        when(staleUserStore.findById(1L)).thenReturn(Optional.of(new StaleUserResponse(cached, 42)));
+
+        UserResponse result = userService.getUserByIdFallback(1L, new RuntimeException("connection refused"));
+
+        StaleUserResponse stale = assertInstanceOf(StaleUserResponse.class, result);
+        assertEquals("john@example.com", stale.getEmail());
+        assertEquals(42, stale.getAgeSeconds());
+    }
+
+    @Test
+    void getUserByIdFallback_WithNotFound_ShouldNotServeStaleUser() {
+        ResourceNotFoundException notFound = new ResourceNotFoundException("User not found with id: 1");
+
+        assertSame(notFound, assertThrows(ResourceNotFoundException.class,
+                () -> userService.getUserByIdFallback(1L, notFound)));
+
+        verifyNoInteractions(staleUserStore);
+    }
+}
@@ -1,11 +1,16 @@
 package org.example.userservice.service;
 
+import org.example.userservice.cache.StaleUserStore;
+import org.example.userservice.cache.UserResponseCache;
+import org.example.userservice.cache.UserSnapshotStore;
 import org.example.userservice.dto.UserRequest;
 import org.example.userservice.dto.UserResponse;
+import org.example.userservice.event.UserChangeFeed;
 import org.example.userservice.exception.DuplicateEmailException;
 import org.example.userservice.exception.ResourceNotFoundException;
 import org.example.userservice.model.User; // Добавьте этот импорт
 import org.example.userservice.repository.UserRepository;
+import org.example.userservice.sharding.UserShards;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -27,6 +32,24 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserEventPublisher userEventPublisher;
+
+    @Mock
+    private UserSnapshotStore userSnapshotStore;
+
+    @Mock
+    private UserChangeFeed userChangeFeed;
+
+    @Mock
+    private StaleUserStore staleUserStore;
+
+    @Mock
+    private UserResponseCache userResponseCache;
+
+    @Mock
+    private UserShards userShards;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -95,12 +118,10 @@ class UserServiceTest {
 
     @Test
     void getAllUsers_ShouldReturnAllUsers() {
-        User user1 = new User("John Doe", "john@example.com", 30);
-        user1.setId(1L);
-        User user2 = new User("Jane Smith", "jane@example.com", 25);
-        user2.setId(2L);
+        UserResponse user1 = new UserResponse(1L, "John Doe", "john@example.com", 30, null);
+        UserResponse user2 = new UserResponse(2L, "Jane Smith", "jane@example.com", 25, null);
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        when(userRepository.findAllResponses()).thenReturn(Arrays.asList(user1, user2));
 
         List<UserResponse> result = userService.getAllUsers();
 
@@ -109,7 +130,8 @@ class UserServiceTest {
         assertEquals("John Doe", result.get(0).getName());
         assertEquals("Jane Smith", result.get(1).getName());
 
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllResponses();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
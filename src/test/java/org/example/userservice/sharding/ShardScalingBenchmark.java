@@ -0,0 +1,97 @@
+package org.example.userservice.sharding;
+
+import org.example.userservice.UserServiceApplication;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Concurrent single-user inserts and a scatter-gather list read against 1, 2 and 4 H2 shards in one JVM.
+@Tag("benchmark")
+class ShardScalingBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int WARMUP_INSERTS = 4_000;
+    private static final int INSERTS = 40_000;
+    private static final int LIST_ITERATIONS = 50;
+
+    @Test
+    void compareShardCounts() throws Exception {
+        for (int shards : new int[]{1, 2, 4}) {
+            try (ConfigurableApplicationContext context = start(shards)) {
+                report(shards, context.getBean(UserRepository.class));
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(int shards) {
+        String urls = IntStream.range(0, shards)
+                .mapToObj(shard -> "jdbc:h2:mem:shard-benchmark-" + shards + "-" + shard + ";DB_CLOSE_DELAY=-1")
+                .collect(Collectors.joining(","));
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "app.sharding.enabled=true",
+                        "app.sharding.urls=" + urls,
+                        "app.sharding.username=sa",
+                        "app.sharding.password=",
+                        "spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                        "app.grpc.enabled=false",
+                        "eureka.client.enabled=false",
+                        "logging.level.org.example.userservice=WARN")
+                .run();
+    }
+
+    private void report(int shards, UserRepository userRepository) throws Exception {
+        insert(userRepository, "warmup", WARMUP_INSERTS);
+        long nanos = insert(userRepository, "user", INSERTS);
+
+        for (int i = 0; i < LIST_ITERATIONS / 5; i++) {
+            userRepository.findAllResponses();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < LIST_ITERATIONS; i++) {
+            userRepository.findAllResponses();
+        }
+        long listNanos = System.nanoTime() - started;
+
+        System.out.printf("%d shard(s)  %8d inserts/s (%d threads)  list of %d users %6d us%n",
+                shards, INSERTS * 1_000_000_000L / nanos, THREADS, WARMUP_INSERTS + INSERTS,
+                listNanos / LIST_ITERATIONS / 1_000);
+    }
+
+    private long insert(UserRepository userRepository, String prefix, int count) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int thread = 0; thread < THREADS; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                        userRepository.save(new User("User " + i, prefix + i + "@example.com", i % 90));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
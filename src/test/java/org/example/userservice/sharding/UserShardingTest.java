@@ -0,0 +1,171 @@
+package org.example.userservice.sharding;
+
+import org.example.userservice.config.IdGeneratorConfig;
+import org.example.userservice.config.ShardingConfig;
+import org.example.userservice.dto.UserResponse;
+import org.example.userservice.model.User;
+import org.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.urls=jdbc:h2:mem:sharding-test-0;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharding-test-1;DB_CLOSE_DELAY=-1,"
+                + "jdbc:h2:mem:sharding-test-2;DB_CLOSE_DELAY=-1",
+        "app.sharding.username=sa",
+        "app.sharding.password="
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ShardingConfig.class, UserShards.class, IdGeneratorConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserShardingTest {
+
+    private static final int USERS = 30;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserShards userShards;
+
+    @Autowired
+    private ShardRoutingDataSource shards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void save_ShouldPlaceEachUserOnTheShardItsEmailHashesTo() {
+        List<User> users = saveUsers();
+
+        for (User user : users) {
+            int shard = userShards.shardOfEmail(user.getEmail());
+            assertEquals(shard, userShards.shardOfId(user.getId()));
+            assertEquals(1, rowsOnShard(shard, user.getId()));
+        }
+        // thirty emails over three shards use every one of them
+        assertEquals(3, users.stream().map(user -> userShards.shardOfId(user.getId())).distinct().count());
+    }
+
+    @Test
+    void findByIdAndEmail_ShouldRouteToTheOwningShard() {
+        for (User user : saveUsers()) {
+            assertEquals(user.getEmail(), userRepository.findById(user.getId()).orElseThrow().getEmail());
+            assertEquals(user.getId(), userRepository.findByEmail(user.getEmail().toUpperCase()).orElseThrow().getId());
+            assertTrue(userRepository.existsByEmail(user.getEmailNormalized()));
+        }
+        assertTrue(userRepository.findById(UserShards.firstId(2) + 1_000_000).isEmpty());
+    }
+
+    @Test
+    void listQueries_ShouldGatherEveryShardInIdOrder() {
+        List<Long> ids = saveUsers().stream().map(User::getId).sorted().collect(Collectors.toList());
+
+        assertEquals(ids, userRepository.findAllResponses().stream().map(UserResponse::getId).collect(Collectors.toList()));
+        assertEquals(USERS, userRepository.count());
+        assertEquals(USERS, userRepository.findAllById(ids).size());
+    }
+
+    @Test
+    void findAllPaged_ShouldCutPagesAcrossShardBoundaries() {
+        List<Long> ids = saveUsers().stream().map(User::getId).sorted().collect(Collectors.toList());
+
+        List<Long> paged = new ArrayList<>();
+        Page<User> page = userRepository.findAll(PageRequest.of(0, 7, Sort.by("id")));
+        while (true) {
+            page.forEach(user -> paged.add(user.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = userRepository.findAll(page.nextPageable());
+        }
+
+        assertEquals(USERS, page.getTotalElements());
+        assertEquals(ids, paged);
+    }
+
+    @Test
+    void keysetWalk_ShouldVisitEveryShardInIdOrder() {
+        List<Long> ids = saveUsers().stream().map(User::getId).sorted().collect(Collectors.toList());
+
+        List<Long> walked = new ArrayList<>();
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            List<User> users = userRepository.findByIdGreaterThanOrderById(lastId, Limit.of(7));
+            users.forEach(user -> walked.add(user.getId()));
+            if (users.size() < 7) {
+                break;
+            }
+            lastId = users.get(users.size() - 1).getId();
+        }
+
+        assertEquals(ids, walked);
+    }
+
+    @Test
+    void duplicateEmail_ShouldBeRejectedByTheOwningShard() {
+        userRepository.save(new User("John Doe", "john@example.com", 30));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User("John Again", "John@Example.com", 31)));
+    }
+
+    @Test
+    void transaction_ShouldStayOnTheShardOfItsFirstCall() {
+        List<User> users = saveUsers();
+        User first = users.get(0);
+        User other = users.stream()
+                .filter(user -> userShards.shardOfId(user.getId()) != userShards.shardOfId(first.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            userRepository.findById(first.getId());
+            userRepository.findById(other.getId());
+        }));
+        // the shard binding ends with the transaction
+        assertTrue(transaction.execute(status -> userRepository.findById(other.getId())).isPresent());
+    }
+
+    private List<User> saveUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("User " + i, "user" + i + "@example.com", 20 + i));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private int rowsOnShard(int shard, long id) {
+        return new JdbcTemplate(shards.getShard(shard))
+                .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, id);
+    }
+}